@@ -0,0 +1,318 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * Feedback effects drawn inside TracingView: success flashes, error shakes, stroke
+ * glows, the completion celebration and short text messages.
+ *
+ * Animations come from a fixed pool and are advanced by a Choreographer frame callback
+ * that only runs while something is playing. Starting, ticking and drawing an
+ * animation does not allocate.
+ */
+class FeedbackAnimator implements Choreographer.FrameCallback {
+
+    static final int TYPE_SUCCESS_FLASH = 0;
+    static final int TYPE_ERROR_SHAKE = 1;
+    static final int TYPE_STROKE_GLOW = 2;
+    static final int TYPE_CELEBRATION = 3;
+    static final int TYPE_MESSAGE = 4;
+
+    private static final int POOL_SIZE = 16;
+
+    private static final long SUCCESS_FLASH_NANOS = 350_000_000L;
+    private static final long ERROR_SHAKE_NANOS = 450_000_000L;
+    private static final long STROKE_GLOW_NANOS = 600_000_000L;
+    private static final long CELEBRATION_NANOS = 1_600_000_000L;
+    private static final long MESSAGE_NANOS = 1_500_000_000L;
+
+    private static final float SHAKE_AMPLITUDE = 24f;
+    private static final int PARTICLE_COUNT = 24;
+    private static final float PARTICLE_RADIUS = 10f;
+
+    private static final class Animation {
+        boolean active;
+        int type;
+        long startNanos;
+        long durationNanos;
+        float progress;
+        float x, y;
+        Path path;
+        String text;
+    }
+
+    private final View view;
+    private final Animation[] pool = new Animation[POOL_SIZE];
+    private boolean ticking;
+    private float shakeOffset;
+
+    private final Paint overlayPaint = new Paint();
+    private final Paint ringPaint = new Paint();
+    private final Paint glowPaint = new Paint();
+    private final Paint particlePaint = new Paint();
+    private final Paint messagePaint = new Paint();
+    private final Paint messageBackgroundPaint = new Paint();
+
+    // Fixed burst pattern for the celebration, computed once
+    private final float[] particleDirX = new float[PARTICLE_COUNT];
+    private final float[] particleDirY = new float[PARTICLE_COUNT];
+    private final float[] particleSpeed = new float[PARTICLE_COUNT];
+    private static final int[] PARTICLE_COLORS = {
+            Color.parseColor("#FF6F00"), Color.parseColor("#43A047"),
+            Color.parseColor("#1E88E5"), Color.parseColor("#FDD835"),
+            Color.parseColor("#E53935")
+    };
+
+    FeedbackAnimator(View view) {
+        this.view = view;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            pool[i] = new Animation();
+        }
+
+        for (int i = 0; i < PARTICLE_COUNT; i++) {
+            double angle = 2 * Math.PI * i / PARTICLE_COUNT;
+            particleDirX[i] = (float) Math.cos(angle);
+            particleDirY[i] = (float) Math.sin(angle);
+            particleSpeed[i] = 0.6f + 0.4f * ((i * 7) % 5) / 4f;
+        }
+
+        overlayPaint.setStyle(Paint.Style.FILL);
+
+        ringPaint.setStyle(Paint.Style.STROKE);
+        ringPaint.setStrokeWidth(8);
+        ringPaint.setAntiAlias(true);
+
+        glowPaint.setStyle(Paint.Style.STROKE);
+        glowPaint.setStrokeJoin(Paint.Join.ROUND);
+        glowPaint.setStrokeCap(Paint.Cap.ROUND);
+        glowPaint.setStrokeWidth(40);
+        glowPaint.setColor(Color.parseColor("#FFD54F"));
+        glowPaint.setAntiAlias(true);
+
+        particlePaint.setStyle(Paint.Style.FILL);
+        particlePaint.setAntiAlias(true);
+
+        messagePaint.setColor(Color.WHITE);
+        messagePaint.setTextSize(42f);
+        messagePaint.setTextAlign(Paint.Align.CENTER);
+        messagePaint.setAntiAlias(true);
+
+        messageBackgroundPaint.setStyle(Paint.Style.FILL);
+        messageBackgroundPaint.setAntiAlias(true);
+    }
+
+    void successFlash(float x, float y) {
+        start(TYPE_SUCCESS_FLASH, SUCCESS_FLASH_NANOS, x, y, null, null);
+    }
+
+    void errorShake() {
+        // Only one shake at a time; a new one restarts it
+        cancelType(TYPE_ERROR_SHAKE);
+        start(TYPE_ERROR_SHAKE, ERROR_SHAKE_NANOS, 0, 0, null, null);
+    }
+
+    /**
+     * Glows along a finished template stroke. The path is only read while drawing.
+     */
+    void strokeGlow(Path strokePath) {
+        start(TYPE_STROKE_GLOW, STROKE_GLOW_NANOS, 0, 0, strokePath, null);
+    }
+
+    void celebrate(float centerX, float centerY) {
+        start(TYPE_CELEBRATION, CELEBRATION_NANOS, centerX, centerY, null, null);
+    }
+
+    /**
+     * Shows a short message banner, replacing any message already on screen.
+     */
+    void showMessage(String text) {
+        cancelType(TYPE_MESSAGE);
+        start(TYPE_MESSAGE, MESSAGE_NANOS, 0, 0, null, text);
+    }
+
+    void cancelAll() {
+        for (Animation animation : pool) {
+            release(animation);
+        }
+        shakeOffset = 0;
+        if (ticking) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            ticking = false;
+        }
+    }
+
+    /**
+     * Horizontal offset to apply to the glyph while an error shake is playing.
+     */
+    float getShakeOffset() {
+        return shakeOffset;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        boolean anyActive = false;
+        float shake = 0;
+        for (Animation animation : pool) {
+            if (!animation.active) {
+                continue;
+            }
+            float progress = (frameTimeNanos - animation.startNanos) / (float) animation.durationNanos;
+            if (progress >= 1f) {
+                release(animation);
+                continue;
+            }
+            animation.progress = Math.max(0f, progress);
+            if (animation.type == TYPE_ERROR_SHAKE) {
+                float decay = 1f - animation.progress;
+                shake = (float) (SHAKE_AMPLITUDE * decay * Math.sin(animation.progress * 6 * Math.PI));
+            }
+            anyActive = true;
+        }
+        shakeOffset = shake;
+        view.postInvalidateOnAnimation();
+
+        if (anyActive) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            ticking = false;
+        }
+    }
+
+    /**
+     * Draws stroke glows. Their paths are in glyph coordinates, so the caller draws them
+     * with the same transform as the template.
+     */
+    void drawStrokeGlows(Canvas canvas) {
+        for (Animation animation : pool) {
+            if (animation.active && animation.type == TYPE_STROKE_GLOW && animation.path != null) {
+                glowPaint.setAlpha((int) (160 * (1f - animation.progress)));
+                canvas.drawPath(animation.path, glowPaint);
+            }
+        }
+    }
+
+    /**
+     * Draws every active screen-space overlay effect. Shake is applied by the caller via
+     * {@link #getShakeOffset()} and stroke glows by {@link #drawStrokeGlows(Canvas)}.
+     */
+    void draw(Canvas canvas) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        for (Animation animation : pool) {
+            if (!animation.active) {
+                continue;
+            }
+            float progress = animation.progress;
+            float fade = 1f - progress;
+            switch (animation.type) {
+                case TYPE_SUCCESS_FLASH:
+                    overlayPaint.setColor(Color.GREEN);
+                    overlayPaint.setAlpha((int) (60 * fade));
+                    canvas.drawRect(0, 0, width, height, overlayPaint);
+                    ringPaint.setColor(Color.GREEN);
+                    ringPaint.setAlpha((int) (255 * fade));
+                    canvas.drawCircle(animation.x, animation.y, 20f + 80f * progress, ringPaint);
+                    break;
+
+                case TYPE_ERROR_SHAKE:
+                    overlayPaint.setColor(Color.RED);
+                    overlayPaint.setAlpha((int) (50 * fade));
+                    canvas.drawRect(0, 0, width, height, overlayPaint);
+                    break;
+
+                case TYPE_CELEBRATION:
+                    float reach = Math.min(width, height) * 0.45f * (float) Math.sqrt(progress);
+                    for (int i = 0; i < PARTICLE_COUNT; i++) {
+                        particlePaint.setColor(PARTICLE_COLORS[i % PARTICLE_COLORS.length]);
+                        particlePaint.setAlpha((int) (255 * fade));
+                        float distance = reach * particleSpeed[i];
+                        canvas.drawCircle(animation.x + particleDirX[i] * distance,
+                                animation.y + particleDirY[i] * distance,
+                                PARTICLE_RADIUS * (1f + fade), particlePaint);
+                    }
+                    break;
+
+                case TYPE_MESSAGE:
+                    drawMessage(canvas, animation, width, height);
+                    break;
+            }
+        }
+    }
+
+    private void drawMessage(Canvas canvas, Animation animation, int width, int height) {
+        if (animation.text == null) {
+            return;
+        }
+        // Fade in over the first 10% and out over the last 25%
+        float progress = animation.progress;
+        float alpha = progress < 0.1f ? progress / 0.1f : (progress > 0.75f ? (1f - progress) / 0.25f : 1f);
+
+        float textWidth = messagePaint.measureText(animation.text);
+        float textSize = messagePaint.getTextSize();
+        float centerX = width / 2f;
+        float baseline = height - textSize * 1.5f;
+        float padding = textSize * 0.5f;
+
+        messageBackgroundPaint.setColor(Color.argb((int) (180 * alpha), 0, 0, 0));
+        canvas.drawRoundRect(centerX - textWidth / 2f - padding, baseline - textSize - padding / 2f,
+                centerX + textWidth / 2f + padding, baseline + padding,
+                padding, padding, messageBackgroundPaint);
+
+        messagePaint.setAlpha((int) (255 * alpha));
+        canvas.drawText(animation.text, centerX, baseline, messagePaint);
+    }
+
+    private void start(int type, long durationNanos, float x, float y, Path path, String text) {
+        Animation animation = obtain();
+        animation.active = true;
+        animation.type = type;
+        animation.startNanos = System.nanoTime();
+        animation.durationNanos = durationNanos;
+        animation.progress = 0f;
+        animation.x = x;
+        animation.y = y;
+        animation.path = path;
+        animation.text = text;
+
+        if (!ticking) {
+            ticking = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+        view.invalidate();
+    }
+
+    /**
+     * Returns a free pooled animation, or recycles the oldest one if all are playing.
+     */
+    private Animation obtain() {
+        Animation oldest = pool[0];
+        for (Animation animation : pool) {
+            if (!animation.active) {
+                return animation;
+            }
+            if (animation.startNanos < oldest.startNanos) {
+                oldest = animation;
+            }
+        }
+        return oldest;
+    }
+
+    private void cancelType(int type) {
+        for (Animation animation : pool) {
+            if (animation.active && animation.type == type) {
+                release(animation);
+            }
+        }
+    }
+
+    private void release(Animation animation) {
+        animation.active = false;
+        animation.path = null;
+        animation.text = null;
+    }
+}
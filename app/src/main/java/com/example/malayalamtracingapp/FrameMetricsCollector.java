@@ -0,0 +1,340 @@
+package com.example.malayalamtracingapp;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects frame pacing, input-to-frame latency and validation cost for the glyph
+ * being traced.
+ *
+ * Vsync intervals come from Choreographer frame callbacks and render durations from
+ * the window's FrameMetrics. Everything is recorded into fixed-size histograms held
+ * per glyph, so a frame costs a few increments and no allocation. Stats for a glyph
+ * are only allocated the first time it is shown while collection is enabled, and only
+ * the most recently shown glyphs are kept.
+ *
+ * Nothing is registered unless collection is enabled with {@link #setEnabled(boolean)}
+ * while the activity is resumed. The histograms are written from the main thread and
+ * the FrameMetrics thread, so every access goes through {@code statsLock}.
+ */
+public class FrameMetricsCollector implements Choreographer.FrameCallback, Window.OnFrameMetricsAvailableListener {
+
+    private static final String TAG = "FrameMetricsCollector";
+
+    private static final float[] EXPORT_PERCENTILES = {50f, 90f, 95f, 99f};
+    // Each glyph's histograms take about 16 KB, so browsing a large pack must not keep them all
+    private static final int MAX_GLYPH_STATS = 32;
+
+    /**
+     * Histograms for one glyph. Frame callbacks write the vsync histogram on the main
+     * thread; FrameMetrics callbacks write the duration and latency histograms on the
+     * collector's own thread. Only touched while holding statsLock.
+     */
+    private static final class GlyphFrameStats {
+        final String glyph;
+        final LatencyHistogram vsyncInterval = new LatencyHistogram();
+        final LatencyHistogram frameDuration = new LatencyHistogram();
+        final LatencyHistogram inputToFrame = new LatencyHistogram();
+        final LatencyHistogram validation = new LatencyHistogram();
+        int jankyFrames;
+        int droppedReports;
+        int validationsOverBudget;
+
+        GlyphFrameStats(String glyph) {
+            this.glyph = glyph;
+        }
+    }
+
+    /**
+     * The current glyph's numbers for the on-screen HUD, copied out under the lock.
+     */
+    static final class HudSnapshot {
+        float frameP50Millis, frameP95Millis, frameP99Millis;
+        float vsyncP95Millis;
+        float inputToFrameP95Millis;
+        float validationMaxMillis;
+        int jankyFrames;
+        int validationsOverBudget;
+    }
+
+    private final Object statsLock = new Object();
+    // Access order, so the eldest entry is the glyph shown longest ago
+    private final Map<String, GlyphFrameStats> statsByGlyph = new LinkedHashMap<String, GlyphFrameStats>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GlyphFrameStats> eldest) {
+            return size() > MAX_GLYPH_STATS;
+        }
+    };
+    private String currentGlyph = "-";
+    // Stats for currentGlyph while collecting, otherwise null
+    private GlyphFrameStats currentStats;
+
+    private volatile long frameBudgetNanos = 16_666_667L;
+    private long lastVsyncNanos;
+    // Resumed (start/stop) and asked to collect (setEnabled); callbacks are registered only when both hold
+    private boolean running;
+    private boolean enabled;
+    private volatile boolean collecting;
+
+    // Oldest touch event not yet shown on screen, on the System.nanoTime() clock
+    private volatile long pendingInputNanos;
+
+    private Window window;
+    private HandlerThread metricsThread;
+
+    /**
+     * Attaches to the given window when the activity resumes. The frame budget follows the
+     * display's refresh rate. Callbacks are only registered while collection is enabled.
+     */
+    public void start(Window window) {
+        if (running) {
+            return;
+        }
+        running = true;
+        this.window = window;
+
+        Display display = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? window.getContext().getDisplay() : window.getDecorView().getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        frameBudgetNanos = (long) (1_000_000_000L / Math.max(refreshRate, 1f));
+        Log.d(TAG, "start: Refresh rate " + refreshRate + " Hz, frame budget " + frameBudgetNanos + " ns");
+        updateRegistration();
+    }
+
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        updateRegistration();
+        window = null;
+    }
+
+    /**
+     * Turns collection on or off. While off, no frame callback or metrics listener is registered.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        updateRegistration();
+    }
+
+    private void updateRegistration() {
+        boolean shouldCollect = running && enabled;
+        if (shouldCollect == collecting) {
+            return;
+        }
+        collecting = shouldCollect;
+        synchronized (statsLock) {
+            currentStats = shouldCollect ? statsFor(currentGlyph) : null;
+        }
+        if (shouldCollect) {
+            metricsThread = new HandlerThread("FrameMetrics");
+            metricsThread.start();
+            window.addOnFrameMetricsAvailableListener(this, new Handler(metricsThread.getLooper()));
+            lastVsyncNanos = 0;
+            pendingInputNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            Choreographer.getInstance().removeFrameCallback(this);
+            try {
+                window.removeOnFrameMetricsAvailableListener(this);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "updateRegistration: Frame metrics listener was not registered", e);
+            }
+            metricsThread.quitSafely();
+            metricsThread = null;
+        }
+    }
+
+    /**
+     * Attributes everything recorded from now on to the given glyph.
+     */
+    public void setGlyph(String glyph) {
+        synchronized (statsLock) {
+            currentGlyph = glyph;
+            currentStats = collecting ? statsFor(glyph) : null;
+        }
+        lastVsyncNanos = 0;
+    }
+
+    long getFrameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    /**
+     * Copies the current glyph's HUD numbers into out; all zero while not collecting.
+     */
+    void readCurrentStats(HudSnapshot out) {
+        synchronized (statsLock) {
+            GlyphFrameStats stats = currentStats;
+            if (stats == null) {
+                out.frameP50Millis = out.frameP95Millis = out.frameP99Millis = 0;
+                out.vsyncP95Millis = 0;
+                out.inputToFrameP95Millis = 0;
+                out.validationMaxMillis = 0;
+                out.jankyFrames = 0;
+                out.validationsOverBudget = 0;
+                return;
+            }
+            out.frameP50Millis = stats.frameDuration.percentileMillis(50f);
+            out.frameP95Millis = stats.frameDuration.percentileMillis(95f);
+            out.frameP99Millis = stats.frameDuration.percentileMillis(99f);
+            out.vsyncP95Millis = stats.vsyncInterval.percentileMillis(95f);
+            out.inputToFrameP95Millis = stats.inputToFrame.percentileMillis(95f);
+            out.validationMaxMillis = stats.validation.getMaxMillis();
+            out.jankyFrames = stats.jankyFrames;
+            out.validationsOverBudget = stats.validationsOverBudget;
+        }
+    }
+
+    /**
+     * Notes a touch event so the next rendered frame can be measured against it.
+     */
+    void onInputEvent(long eventTimeNanos) {
+        if (collecting && pendingInputNanos == 0) {
+            pendingInputNanos = eventTimeNanos;
+        }
+    }
+
+    void recordValidation(long durationNanos) {
+        if (!collecting) {
+            return;
+        }
+        synchronized (statsLock) {
+            GlyphFrameStats stats = currentStats;
+            if (stats == null) {
+                return;
+            }
+            stats.validation.record(durationNanos);
+            if (durationNanos > frameBudgetNanos) {
+                stats.validationsOverBudget++;
+            }
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!collecting) {
+            return;
+        }
+        if (lastVsyncNanos != 0) {
+            long interval = frameTimeNanos - lastVsyncNanos;
+            synchronized (statsLock) {
+                if (currentStats != null) {
+                    currentStats.vsyncInterval.record(interval);
+                }
+            }
+        }
+        lastVsyncNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+        long totalDuration = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        long vsync = frameMetrics.getMetric(FrameMetrics.VSYNC_TIMESTAMP);
+        // A frame is janky when it took longer than its deadline, which Android 12 reports directly
+        long deadline = Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                ? frameMetrics.getMetric(FrameMetrics.DEADLINE) : frameBudgetNanos;
+
+        long input = pendingInputNanos;
+        boolean hasInput = input != 0 && input <= vsync;
+        if (hasInput) {
+            pendingInputNanos = 0;
+        }
+
+        synchronized (statsLock) {
+            GlyphFrameStats stats = currentStats;
+            // A late report after collection was turned off
+            if (stats == null) {
+                return;
+            }
+            stats.frameDuration.record(totalDuration);
+            if (totalDuration > deadline) {
+                stats.jankyFrames++;
+            }
+            // Reports the platform could not deliver; their frames are unknown, not janky
+            stats.droppedReports += dropCountSinceLastInvocation;
+            if (hasInput) {
+                stats.inputToFrame.record(vsync + totalDuration - input);
+            }
+        }
+    }
+
+    /**
+     * Percentile summaries for every glyph shown so far, as a JSON array.
+     */
+    public String exportSummaries() {
+        JSONArray summaries = new JSONArray();
+        synchronized (statsLock) {
+            exportLocked(summaries);
+        }
+        return summaries.toString();
+    }
+
+    private void exportLocked(JSONArray summaries) {
+        try {
+            for (GlyphFrameStats stats : statsByGlyph.values()) {
+                if (stats.vsyncInterval.getCount() == 0 && stats.frameDuration.getCount() == 0) {
+                    continue;
+                }
+                JSONObject summary = new JSONObject();
+                summary.put("glyph", stats.glyph);
+                summary.put("frameBudgetMs", frameBudgetNanos / 1_000_000.0);
+                summary.put("jankyFrames", stats.jankyFrames);
+                summary.put("droppedReports", stats.droppedReports);
+                summary.put("validationsOverBudget", stats.validationsOverBudget);
+                summary.put("vsyncIntervalMs", summarize(stats.vsyncInterval));
+                summary.put("frameDurationMs", summarize(stats.frameDuration));
+                summary.put("inputToFrameMs", summarize(stats.inputToFrame));
+                summary.put("validationMs", summarize(stats.validation));
+                summaries.put(summary);
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "exportSummaries: Error building summary", e);
+        }
+    }
+
+    /**
+     * Drops the stats of every glyph.
+     */
+    public void reset() {
+        synchronized (statsLock) {
+            statsByGlyph.clear();
+            currentStats = collecting ? statsFor(currentGlyph) : null;
+        }
+        lastVsyncNanos = 0;
+    }
+
+    private GlyphFrameStats statsFor(String glyph) {
+        GlyphFrameStats stats = statsByGlyph.get(glyph);
+        if (stats == null) {
+            stats = new GlyphFrameStats(glyph);
+            statsByGlyph.put(glyph, stats);
+        }
+        return stats;
+    }
+
+    private static JSONObject summarize(LatencyHistogram histogram) throws JSONException {
+        JSONObject summary = new JSONObject();
+        summary.put("count", histogram.getCount());
+        for (float percentile : EXPORT_PERCENTILES) {
+            summary.put("p" + (int) percentile, histogram.percentileMillis(percentile));
+        }
+        summary.put("max", histogram.getMaxMillis());
+        return summary;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.malayalamtracingapp;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.util.JsonReader;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a raw JSON glyph resource into a glyph pack and opens it.
+ *
+ * The JSON is streamed, and each stroke's SVG is parsed into path commands and each
+ * glyph's bounds are computed once while importing, so even very large content packs
+ * are never held in memory whole and nothing parses SVG after the import. The pack is named
+ * after the resource, the pack format and when the app was installed or updated, so
+ * later launches open the existing pack directly without reading the resource. Resources
+ * only change with an update, which names a new pack and removes the old one.
+ *
+ * Importing takes a while for large packs, so open() must not be called on the main thread.
+ */
+final class GlyphPackImporter {
+
+    private static final String TAG = "GlyphPackImporter";
+    private static final String PACK_DIR_NAME = "glyph_packs";
+
+    private GlyphPackImporter() {
+    }
+
+    static PackedGlyphRepository open(Context context, int rawResId, long cacheBudgetBytes) throws IOException {
+        File packDir = new File(context.getCacheDir(), PACK_DIR_NAME);
+        if (!packDir.isDirectory() && !packDir.mkdirs()) {
+            throw new IOException("Could not create " + packDir);
+        }
+
+        String resourceName = context.getResources().getResourceEntryName(rawResId);
+        File packFile = new File(packDir, resourceName + "-" + GlyphPackWriter.VERSION + "-" + installTime(context) + ".pack");
+        if (packFile.isFile()) {
+            try {
+                return new PackedGlyphRepository(packFile, cacheBudgetBytes);
+            } catch (IOException e) {
+                Log.w(TAG, "open: Existing pack unreadable, rebuilding " + packFile, e);
+                packFile.delete();
+            }
+        }
+
+        deleteStalePacks(packDir, resourceName + "-");
+        File temp = new File(packDir, packFile.getName() + ".tmp");
+        importJson(context, rawResId, temp);
+        if (!temp.renameTo(packFile)) {
+            temp.delete();
+            throw new IOException("Could not move " + temp + " into place");
+        }
+        return new PackedGlyphRepository(packFile, cacheBudgetBytes);
+    }
+
+    /**
+     * Streams [{"name": ..., "strokes": [...]}, ...] into a pack file.
+     */
+    private static void importJson(Context context, int rawResId, File target) throws IOException {
+        long start = System.nanoTime();
+        int count = 0;
+
+        InputStream inputStream = context.getResources().openRawResource(rawResId);
+        JsonReader reader = new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        GlyphPackWriter writer = new GlyphPackWriter(target);
+        try {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String name = null;
+                List<PackedPath> strokes = new ArrayList<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String key = reader.nextName();
+                    if ("name".equals(key)) {
+                        name = reader.nextString();
+                    } else if ("strokes".equals(key)) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            PackedPath stroke = SvgPathParser.parse(reader.nextString());
+                            if (stroke.isEmpty()) {
+                                Log.w(TAG, "importJson: Skipping empty or invalid stroke.");
+                            } else {
+                                strokes.add(stroke);
+                            }
+                        }
+                        reader.endArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (name == null) {
+                    Log.w(TAG, "importJson: Skipping glyph without a name.");
+                    continue;
+                }
+
+                // Bounds of every point, control points included
+                float left = Float.MAX_VALUE, top = Float.MAX_VALUE;
+                float right = -Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+                for (PackedPath stroke : strokes) {
+                    for (int i = 0; i < stroke.getCoordCount(); i += 2) {
+                        left = Math.min(left, stroke.getCoord(i));
+                        top = Math.min(top, stroke.getCoord(i + 1));
+                        right = Math.max(right, stroke.getCoord(i));
+                        bottom = Math.max(bottom, stroke.getCoord(i + 1));
+                    }
+                }
+                if (strokes.isEmpty()) {
+                    left = top = right = bottom = 0;
+                }
+                writer.add(name, strokes, left, top, right, bottom);
+                count++;
+            }
+            reader.endArray();
+            writer.finish();
+        } catch (IllegalStateException e) {
+            throw new IOException("Malformed glyph JSON", e);
+        } finally {
+            writer.close();
+            reader.close();
+        }
+        Log.d(TAG, "importJson: Imported " + count + " glyphs in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * When the installed APK was last written; it changes with every install or update.
+     */
+    private static long installTime(Context context) throws IOException {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            throw new IOException("Own package not found", e);
+        }
+    }
+
+    /**
+     * Removes packs built from an earlier install of the same resource.
+     */
+    private static void deleteStalePacks(File packDir, String prefix) {
+        File[] files = packDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().startsWith(prefix) && !file.delete()) {
+                Log.w(TAG, "deleteStalePacks: Could not delete " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.malayalamtracingapp;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes glyphs into the compact pack format read by {@link PackedGlyphRepository}.
+ *
+ * Layout, all big-endian:
+ * <pre>
+ *   int magic, int version
+ *   stroke data: per glyph, per stroke: int opCount, int coordCount,
+ *                byte op[opCount], float coord[coordCount]
+ *   index: per glyph: short nameLength, UTF-8 name, short strokeCount,
+ *          float left, top, right, bottom, int dataOffset, int dataLength
+ *   footer: long indexOffset, int glyphCount
+ * </pre>
+ * Strokes are stored as {@link PackedPath} commands, so reading them back parses no text.
+ * Stroke data is streamed straight to disk, so only the index is held in memory while writing.
+ */
+class GlyphPackWriter implements Closeable {
+
+    static final int MAGIC = 0x474C5048; // "GLPH"
+    static final int VERSION = 2;
+    static final int FOOTER_SIZE = 12;
+
+    private final DataOutputStream out;
+    private long written;
+    private boolean finished;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Integer> strokeCounts = new ArrayList<>();
+    private final List<float[]> bounds = new ArrayList<>();
+    private final List<Integer> offsets = new ArrayList<>();
+    private final List<Integer> lengths = new ArrayList<>();
+
+    GlyphPackWriter(File file) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        written = 8;
+    }
+
+    void add(String name, List<PackedPath> strokes, float left, float top, float right, float bottom) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Pack already finished");
+        }
+        if (strokes.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many strokes for glyph " + name);
+        }
+        long start = written;
+        for (PackedPath stroke : strokes) {
+            int opCount = stroke.getOpCount();
+            int coordCount = stroke.getCoordCount();
+            out.writeInt(opCount);
+            out.writeInt(coordCount);
+            for (int i = 0; i < opCount; i++) {
+                out.writeByte(stroke.getOp(i));
+            }
+            for (int i = 0; i < coordCount; i++) {
+                out.writeFloat(stroke.getCoord(i));
+            }
+            written += 8 + opCount + 4L * coordCount;
+        }
+        if (written > Integer.MAX_VALUE) {
+            throw new IOException("Glyph pack larger than 2 GB");
+        }
+        names.add(name);
+        strokeCounts.add(strokes.size());
+        bounds.add(new float[]{left, top, right, bottom});
+        offsets.add((int) start);
+        lengths.add((int) (written - start));
+    }
+
+    /**
+     * Writes the index and footer and closes the file.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        long indexOffset = written;
+        for (int i = 0; i < names.size(); i++) {
+            byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeShort(strokeCounts.get(i));
+            float[] b = bounds.get(i);
+            out.writeFloat(b[0]);
+            out.writeFloat(b[1]);
+            out.writeFloat(b[2]);
+            out.writeFloat(b[3]);
+            out.writeInt(offsets.get(i));
+            out.writeInt(lengths.get(i));
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(names.size());
+        finished = true;
+        out.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.malayalamtracingapp;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.GridView;
+
+/**
+ * Grid adapter for the glyph picker. Cells are recycled by the GridView, and a
+ * thumbnail is only requested from the atlas when its cell is bound, so only glyphs
+ * that scroll into view are ever loaded and the atlas keeps the most recently bound.
+ */
+class GlyphPickerAdapter extends BaseAdapter implements GlyphThumbnailAtlas.Listener {
+
+    private final GlyphRepository repository;
+    private final GlyphThumbnailAtlas atlas;
+    private final int cellSize;
+    private final int selectedIndex;
+    private GridView gridView;
+
+    GlyphPickerAdapter(GlyphRepository repository, GlyphThumbnailAtlas atlas, int cellSize, int selectedIndex) {
+        this.repository = repository;
+        this.atlas = atlas;
+        this.cellSize = cellSize;
+        this.selectedIndex = selectedIndex;
+        atlas.setListener(this);
+    }
+
+    void attachTo(GridView gridView) {
+        this.gridView = gridView;
+        gridView.setAdapter(this);
+    }
+
+    @Override
+    public int getCount() {
+        return repository.getGlyphCount();
+    }
+
+    @Override
+    public Object getItem(int position) {
+        return repository.getName(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        GlyphCellView cell = (GlyphCellView) convertView;
+        if (cell == null) {
+            cell = new GlyphCellView(parent.getContext(), atlas);
+            cell.setLayoutParams(new AbsListView.LayoutParams(cellSize, cellSize));
+        }
+        cell.bind(position, position == selectedIndex);
+        atlas.request(position);
+        return cell;
+    }
+
+    @Override
+    public void onThumbnailsReady() {
+        if (gridView == null) {
+            return;
+        }
+        // Only cells currently on screen need redrawing; others bind the ready thumbnail later
+        for (int i = 0; i < gridView.getChildCount(); i++) {
+            View child = gridView.getChildAt(i);
+            if (child instanceof GlyphCellView && ((GlyphCellView) child).isStale()) {
+                child.invalidate();
+            }
+        }
+    }
+
+    /**
+     * One picker cell: the glyph's atlas thumbnail, or a placeholder while it loads.
+     */
+    static class GlyphCellView extends View {
+
+        private final GlyphThumbnailAtlas atlas;
+        private final Paint thumbnailPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        private final Paint placeholderPaint = new Paint();
+        private final Paint selectionPaint = new Paint();
+        private final RectF bounds = new RectF();
+        private int glyphIndex = -1;
+        private boolean selected;
+        private boolean showingPlaceholder = true;
+
+        GlyphCellView(Context context, GlyphThumbnailAtlas atlas) {
+            super(context);
+            this.atlas = atlas;
+            thumbnailPaint.setColor(Color.parseColor("#333333"));
+
+            placeholderPaint.setColor(Color.parseColor("#E0E0E0"));
+            placeholderPaint.setStyle(Paint.Style.FILL);
+
+            selectionPaint.setColor(Color.parseColor("#FF6F00"));
+            selectionPaint.setStyle(Paint.Style.STROKE);
+            selectionPaint.setStrokeWidth(6);
+        }
+
+        void bind(int index, boolean isSelected) {
+            glyphIndex = index;
+            selected = isSelected;
+            invalidate();
+        }
+
+        /**
+         * True if the thumbnail became ready, or lost its atlas slot, since the last draw.
+         */
+        boolean isStale() {
+            return showingPlaceholder == atlas.isReady(glyphIndex);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            super.onDraw(canvas);
+            float inset = getWidth() * 0.06f;
+            bounds.set(inset, inset, getWidth() - inset, getHeight() - inset);
+            showingPlaceholder = !atlas.isReady(glyphIndex);
+            if (showingPlaceholder) {
+                canvas.drawRoundRect(bounds, inset, inset, placeholderPaint);
+                // The thumbnail's slot may have been reused since this cell was bound
+                atlas.request(glyphIndex);
+            } else {
+                atlas.draw(canvas, glyphIndex, bounds, thumbnailPaint);
+            }
+            if (selected) {
+                canvas.drawRect(bounds, selectionPaint);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.malayalamtracingapp;
+
+import java.util.List;
+
+/**
+ * Read access to a set of glyph templates by index.
+ *
+ * Names, stroke counts and bounds come from a small in-memory index. Stroke data is
+ * decoded on demand, so callers should ask for it when a glyph is needed rather than
+ * holding on to it.
+ */
+interface GlyphRepository {
+
+    int getGlyphCount();
+
+    String getName(int index);
+
+    int getStrokeCount(int index);
+
+    /**
+     * Writes the left, top, right and bottom of the glyph's unscaled strokes into out[0..3].
+     */
+    void getBounds(int index, float[] out);
+
+    /**
+     * @return The index of the glyph with the given name, or -1 if there is none.
+     */
+    int indexOf(String name);
+
+    /**
+     * Path commands for each stroke of the glyph, in tracing order.
+     */
+    List<PackedPath> getStrokes(int index);
+}
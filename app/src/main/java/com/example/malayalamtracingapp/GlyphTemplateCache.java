@@ -0,0 +1,121 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Glyph templates shared by every classroom lane.
+ *
+ * Each glyph is built from its path commands and flattened into arc tables once, in
+ * its own unscaled coordinates, and never changed afterwards. Lanes map touches into those coordinates
+ * rather than keeping scaled copies of the validation data, so a lane only adds its
+ * own tracing state. Only the most recently used templates are kept, a few more than
+ * there are lanes, so lanes moving through the alphabet do not keep every glyph alive.
+ */
+class GlyphTemplateCache {
+
+    private static final String TAG = "GlyphTemplateCache";
+
+    static final class GlyphTemplate {
+        final int glyphIndex;
+        final String name;
+        // Unscaled strokes and their arc tables, in tracing order; never modified
+        final List<Path> strokes;
+        final List<StrokeArcTable> tables;
+        private final float left, top, right, bottom;
+
+        private GlyphTemplate(int glyphIndex, String name, List<Path> strokes, List<StrokeArcTable> tables, float[] bounds) {
+            this.glyphIndex = glyphIndex;
+            this.name = name;
+            this.strokes = Collections.unmodifiableList(strokes);
+            this.tables = Collections.unmodifiableList(tables);
+            left = bounds[0];
+            top = bounds[1];
+            right = bounds[2];
+            bottom = bounds[3];
+        }
+
+        /**
+         * Copies the bounds of the unscaled strokes into out.
+         */
+        void getBounds(RectF out) {
+            out.set(left, top, right, bottom);
+        }
+    }
+
+    private final GlyphRepository repository;
+    private int capacity;
+    // Access order, so the eldest entry is the least recently used template
+    private final LinkedHashMap<Integer, GlyphTemplate> templates = new LinkedHashMap<Integer, GlyphTemplate>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, GlyphTemplate> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    /**
+     * @param capacity How many templates to keep; lanes hold on to their own template regardless.
+     */
+    GlyphTemplateCache(GlyphRepository repository, int capacity) {
+        this.repository = repository;
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Changes how many templates are kept, dropping the least recently used ones if needed.
+     */
+    void setCapacity(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        while (templates.size() > this.capacity) {
+            Integer eldest = templates.keySet().iterator().next();
+            templates.remove(eldest);
+        }
+    }
+
+    int size() {
+        return templates.size();
+    }
+
+    GlyphRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * The template for a repository glyph, built on first use.
+     */
+    GlyphTemplate get(int glyphIndex) {
+        GlyphTemplate template = templates.get(glyphIndex);
+        if (template == null) {
+            template = build(glyphIndex);
+            templates.put(glyphIndex, template);
+        }
+        return template;
+    }
+
+    private GlyphTemplate build(int glyphIndex) {
+        List<PackedPath> source = repository.getStrokes(glyphIndex);
+        List<Path> strokes = new ArrayList<>(source.size());
+        List<StrokeArcTable> tables = new ArrayList<>(source.size());
+        for (PackedPath stroke : source) {
+            if (stroke.isEmpty()) {
+                continue;
+            }
+            Path path = stroke.toPath();
+            strokes.add(path);
+            tables.add(new StrokeArcTable(path));
+        }
+
+        float[] bounds = new float[4];
+        repository.getBounds(glyphIndex, bounds);
+        String name = repository.getName(glyphIndex);
+        Log.d(TAG, "build: Cached template " + name + " with " + strokes.size() + " strokes.");
+        return new GlyphTemplate(glyphIndex, name, strokes, tables, bounds);
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.malayalamtracingapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Glyph thumbnails held in a fixed number of slots of one shared alpha-only atlas bitmap.
+ *
+ * There are only enough slots for the picker's visible grid plus a margin, so the
+ * atlas size does not depend on the size of the pack. A glyph gets a slot when its
+ * thumbnail arrives, taking the least recently drawn one when all are in use; a glyph
+ * that lost its slot is simply produced again when its cell next asks for it.
+ *
+ * Thumbnails are produced on a small background pool. Each rendered cell is also
+ * written to a cache directory for the current pack, so it is normally read back from
+ * disk without even fetching the glyph's strokes. Directories left by earlier packs
+ * are deleted.
+ *
+ * Workers never touch the atlas itself: finished cells are queued and copied in on
+ * the main thread at the start of the next frame, all together, so the atlas is only
+ * changed between frames and re-uploaded at most once per frame.
+ */
+class GlyphThumbnailAtlas {
+
+    private static final String TAG = "GlyphThumbnailAtlas";
+
+    // Bump when thumbnail rendering changes so stale cache files are ignored
+    private static final int RENDER_VERSION = 1;
+    private static final String CACHE_DIR_NAME = "glyph_thumbnails";
+    private static final float PADDING_FRACTION = 0.12f;
+
+    interface Listener {
+        /**
+         * Called on the main thread, at most once per frame, after new thumbnails were added.
+         */
+        void onThumbnailsReady();
+    }
+
+    private final int cellSize;
+    private final int columns;
+    private final int slotCount;
+    private final Bitmap atlas;
+    private final Canvas atlasCanvas;
+    private final Paint copyPaint = new Paint();
+    // The atlas, everything below up to the pool, and the listener are only used on the main thread
+    private final Rect cellRect = new Rect();
+    private Bitmap uploadCell;
+    private Listener listener;
+    // Glyph index to slot, in access order so the eldest entry is the least recently drawn
+    private final LinkedHashMap<Integer, Integer> slotsByGlyph = new LinkedHashMap<>(16, 0.75f, true);
+    // Glyphs queued on the pool and not yet in a slot
+    private final Set<Integer> pending = new HashSet<>();
+
+    private final GlyphRepository repository;
+    // Thumbnails of the current pack; a rebuilt pack gets a new directory
+    private final File cacheDir;
+    private final ExecutorService pool;
+
+    // Cells finished by workers and waiting to be copied into the atlas
+    private final Object finishedLock = new Object();
+    private final List<Integer> finishedIndices = new ArrayList<>();
+    private final List<ByteBuffer> finishedPixels = new ArrayList<>();
+    private boolean flushScheduled;
+    private final Choreographer choreographer;
+    private final Choreographer.FrameCallback flushCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            flushFinishedCells();
+        }
+    };
+
+    // Per-worker scratch cell, reused for every thumbnail that worker produces
+    private final ThreadLocal<Bitmap> scratchCell = new ThreadLocal<Bitmap>() {
+        @Override
+        protected Bitmap initialValue() {
+            return Bitmap.createBitmap(cellSize, cellSize, Bitmap.Config.ALPHA_8);
+        }
+    };
+
+    /**
+     * @param packName  Identifies the pack's contents; thumbnails of other packs are deleted.
+     * @param slotCount Thumbnails held at once, at least the cells the picker can show.
+     */
+    GlyphThumbnailAtlas(Context context, GlyphRepository repository, String packName, int cellSize, int slotCount) {
+        this.repository = repository;
+        this.cellSize = cellSize;
+        this.slotCount = Math.max(1, Math.min(slotCount, repository.getGlyphCount()));
+        this.columns = Math.max(1, (int) Math.ceil(Math.sqrt(this.slotCount)));
+        int rows = (this.slotCount + columns - 1) / columns;
+
+        atlas = Bitmap.createBitmap(columns * cellSize, rows * cellSize, Bitmap.Config.ALPHA_8);
+        atlasCanvas = new Canvas(atlas);
+        copyPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+
+        final File cacheRoot = new File(context.getCacheDir(), CACHE_DIR_NAME);
+        cacheDir = new File(cacheRoot, packName);
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            Log.w(TAG, "GlyphThumbnailAtlas: Could not create cache directory " + cacheDir);
+        }
+
+        int threads = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+        pool = Executors.newFixedThreadPool(threads);
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                deleteOtherPacks(cacheRoot);
+            }
+        });
+        // Created on the main thread; posting frame callbacks to it is safe from any thread
+        choreographer = Choreographer.getInstance();
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    boolean isReady(int index) {
+        return slotsByGlyph.containsKey(index);
+    }
+
+    /**
+     * Called when a cell binds: marks the glyph's thumbnail as recently used, or queues
+     * it if it has no slot and is not already queued.
+     */
+    void request(final int index) {
+        if (index < 0 || index >= repository.getGlyphCount()
+                || slotsByGlyph.get(index) != null || !pending.add(index)) {
+            return;
+        }
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                produce(index);
+            }
+        });
+    }
+
+    /**
+     * Draws a ready thumbnail into dst, tinted with the paint's colour.
+     */
+    void draw(Canvas canvas, int index, RectF dst, Paint paint) {
+        // Looking the slot up also marks it as recently drawn
+        Integer slot = slotsByGlyph.get(index);
+        if (slot == null) {
+            return;
+        }
+        int left = (slot % columns) * cellSize;
+        int top = (slot / columns) * cellSize;
+        Rect src = cellRect;
+        src.set(left, top, left + cellSize, top + cellSize);
+        canvas.drawBitmap(atlas, src, dst, paint);
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+        choreographer.removeFrameCallback(flushCallback);
+        listener = null;
+    }
+
+    private void produce(int index) {
+        Bitmap cell = scratchCell.get();
+        ByteBuffer pixels = ByteBuffer.allocate(cell.getByteCount());
+        String name = repository.getName(index);
+        File cacheFile = new File(cacheDir, cellKey(name) + ".a8");
+
+        if (readCell(cacheFile, pixels)) {
+            Log.d(TAG, "produce: Loaded " + name + " from disk cache.");
+        } else {
+            // Strokes are only fetched and decoded for thumbnails not on disk yet
+            renderCell(cell, index);
+            cell.copyPixelsToBuffer(pixels);
+            writeCell(cacheFile, pixels);
+            Log.d(TAG, "produce: Rendered " + name + ".");
+        }
+
+        synchronized (finishedLock) {
+            finishedIndices.add(index);
+            finishedPixels.add(pixels);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                choreographer.postFrameCallback(flushCallback);
+            }
+        }
+    }
+
+    /**
+     * Copies every queued cell into a slot of the atlas and tells the listener once.
+     */
+    private void flushFinishedCells() {
+        List<Integer> indices;
+        List<ByteBuffer> cells;
+        synchronized (finishedLock) {
+            indices = new ArrayList<>(finishedIndices);
+            cells = new ArrayList<>(finishedPixels);
+            finishedIndices.clear();
+            finishedPixels.clear();
+            flushScheduled = false;
+        }
+        if (uploadCell == null) {
+            uploadCell = Bitmap.createBitmap(cellSize, cellSize, Bitmap.Config.ALPHA_8);
+        }
+        for (int i = 0; i < indices.size(); i++) {
+            int index = indices.get(i);
+            ByteBuffer pixels = cells.get(i);
+            pending.remove(index);
+            int slot = takeSlot();
+            pixels.rewind();
+            uploadCell.copyPixelsFromBuffer(pixels);
+            atlasCanvas.drawBitmap(uploadCell, (slot % columns) * cellSize, (slot / columns) * cellSize, copyPaint);
+            slotsByGlyph.put(index, slot);
+        }
+        Log.d(TAG, "flushFinishedCells: Added " + indices.size() + " thumbnails to the atlas.");
+        if (listener != null) {
+            listener.onThumbnailsReady();
+        }
+    }
+
+    /**
+     * A free slot, or the least recently drawn glyph's slot once all are in use.
+     */
+    private int takeSlot() {
+        if (slotsByGlyph.size() < slotCount) {
+            return slotsByGlyph.size();
+        }
+        Iterator<Map.Entry<Integer, Integer>> eldest = slotsByGlyph.entrySet().iterator();
+        int slot = eldest.next().getValue();
+        eldest.remove();
+        return slot;
+    }
+
+    /**
+     * Deletes thumbnails left in the cache root by other packs or older layouts.
+     */
+    private void deleteOtherPacks(File cacheRoot) {
+        File[] entries = cacheRoot.listFiles();
+        if (entries == null) {
+            return;
+        }
+        for (File entry : entries) {
+            if (!entry.equals(cacheDir)) {
+                deleteRecursively(entry);
+            }
+        }
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        if (!file.delete()) {
+            Log.w(TAG, "deleteRecursively: Could not delete " + file);
+        }
+    }
+
+    private void renderCell(Bitmap cell, int index) {
+        cell.eraseColor(Color.TRANSPARENT);
+
+        // The pack's bounds already cover every stroke, so nothing needs measuring here
+        float[] glyphBounds = new float[4];
+        repository.getBounds(index, glyphBounds);
+        RectF bounds = new RectF(glyphBounds[0], glyphBounds[1], glyphBounds[2], glyphBounds[3]);
+        List<PackedPath> strokes = repository.getStrokes(index);
+        if (strokes.isEmpty() || bounds.width() == 0 || bounds.height() == 0) {
+            return;
+        }
+
+        float padding = cellSize * PADDING_FRACTION;
+        float available = cellSize - 2 * padding;
+        float scale = Math.min(available / bounds.width(), available / bounds.height());
+        Matrix matrix = new Matrix();
+        matrix.postTranslate(-bounds.centerX(), -bounds.centerY());
+        matrix.postScale(scale, scale);
+        matrix.postTranslate(cellSize / 2f, cellSize / 2f);
+
+        Paint strokePaint = new Paint();
+        strokePaint.setColor(Color.BLACK);
+        strokePaint.setStyle(Paint.Style.STROKE);
+        strokePaint.setStrokeJoin(Paint.Join.ROUND);
+        strokePaint.setStrokeCap(Paint.Cap.ROUND);
+        strokePaint.setStrokeWidth(Math.max(2f, cellSize / 24f));
+        strokePaint.setAntiAlias(true);
+
+        Canvas canvas = new Canvas(cell);
+        for (PackedPath stroke : strokes) {
+            if (stroke.isEmpty()) {
+                continue;
+            }
+            Path path = stroke.toPath();
+            path.transform(matrix);
+            canvas.drawPath(path, strokePaint);
+        }
+    }
+
+    private boolean readCell(File file, ByteBuffer pixels) {
+        if (!file.isFile() || file.length() != pixels.capacity()) {
+            return false;
+        }
+        FileInputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            byte[] data = pixels.array();
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    return false;
+                }
+                read += n;
+            }
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "readCell: Error reading " + file, e);
+            return false;
+        } finally {
+            try {
+                if (in != null) in.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing stream", e);
+            }
+        }
+    }
+
+    private void writeCell(File file, ByteBuffer pixels) {
+        // Write to a temporary file first so a half-written cell is never read back
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(temp);
+            out.write(pixels.array(), 0, pixels.capacity());
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                Log.w(TAG, "writeCell: Could not move " + temp + " into place");
+                temp.delete();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "writeCell: Error writing " + file, e);
+            temp.delete();
+        } finally {
+            try {
+                if (out != null) out.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing stream", e);
+            }
+        }
+    }
+
+    private String cellKey(String name) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((RENDER_VERSION + ":" + cellSize + ":" + name).getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest();
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Android release ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.malayalamtracingapp;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects {@link StrokeAttempt}s from TracingView and keeps running totals per glyph
+ * for teachers. Attempts are passed on to an optional listener and then folded into the
+ * totals; they are not stored.
+ */
+public class HandwritingAnalytics {
+
+    private static final String TAG = "HandwritingAnalytics";
+
+    interface Listener {
+        void onStrokeAttempt(StrokeAttempt attempt);
+    }
+
+    /**
+     * Totals for every attempt at one glyph's strokes.
+     */
+    static final class GlyphQuality {
+        final String glyph;
+        int attempts;
+        int passed;
+        long durationMillis;
+        double lengthPx;
+        // Jerk spans orders of magnitude, so it is averaged on a log scale
+        double log10JerkSum;
+        int pauseCount;
+        long pauseMillis;
+        int directionErrors;
+        double deviationSum;
+        float maxDeviationPx;
+
+        GlyphQuality(String glyph) {
+            this.glyph = glyph;
+        }
+
+        float getPassRate() {
+            return attempts > 0 ? passed / (float) attempts : 0;
+        }
+
+        float getMeanSpeed() {
+            return durationMillis > 0 ? (float) (lengthPx * 1000 / durationMillis) : 0;
+        }
+
+        /**
+         * Geometric mean of the attempts' dimensionless jerk.
+         */
+        float getMeanJerk() {
+            return attempts > 0 ? (float) Math.pow(10, log10JerkSum / attempts) : 0;
+        }
+
+        float getMeanDeviationPx() {
+            return attempts > 0 ? (float) (deviationSum / attempts) : 0;
+        }
+    }
+
+    private final Map<String, GlyphQuality> qualityByGlyph = new LinkedHashMap<>();
+    private String currentGlyph = "";
+    private Listener listener;
+
+    /**
+     * Glyph name used for attempts whose view does not know which glyph it is showing.
+     */
+    public void setGlyph(String glyph) {
+        currentGlyph = glyph != null ? glyph : "";
+    }
+
+    String getCurrentGlyph() {
+        return currentGlyph;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    void record(StrokeAttempt attempt) {
+        if (listener != null) {
+            listener.onStrokeAttempt(attempt);
+        }
+        GlyphQuality quality = qualityByGlyph.get(attempt.glyph);
+        if (quality == null) {
+            quality = new GlyphQuality(attempt.glyph);
+            qualityByGlyph.put(attempt.glyph, quality);
+        }
+        quality.attempts++;
+        if (attempt.passed) {
+            quality.passed++;
+        }
+        quality.durationMillis += attempt.durationMillis;
+        quality.lengthPx += attempt.lengthPx;
+        quality.log10JerkSum += Math.log10(Math.max(1f, attempt.dimensionlessJerk));
+        quality.pauseCount += attempt.pauseCount;
+        quality.pauseMillis += attempt.pauseMillis;
+        quality.directionErrors += attempt.directionErrors;
+        quality.deviationSum += attempt.meanDeviationPx;
+        quality.maxDeviationPx = Math.max(quality.maxDeviationPx, attempt.maxDeviationPx);
+    }
+
+    /**
+     * Forgets every total, starting a new session.
+     */
+    public void reset() {
+        qualityByGlyph.clear();
+    }
+
+    /**
+     * Per-glyph quality totals for everything traced so far, as a JSON array.
+     */
+    public String exportSummaries() {
+        JSONArray summaries = new JSONArray();
+        try {
+            for (GlyphQuality quality : qualityByGlyph.values()) {
+                JSONObject summary = new JSONObject();
+                summary.put("glyph", quality.glyph);
+                summary.put("attempts", quality.attempts);
+                summary.put("passRate", quality.getPassRate());
+                summary.put("meanSpeedPxPerSec", quality.getMeanSpeed());
+                summary.put("meanJerk", quality.getMeanJerk());
+                summary.put("pauses", quality.pauseCount);
+                summary.put("pauseMs", quality.pauseMillis);
+                summary.put("directionErrors", quality.directionErrors);
+                summary.put("meanDeviationPx", quality.getMeanDeviationPx());
+                summary.put("maxDeviationPx", quality.maxDeviationPx);
+                summaries.put(summary);
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "exportSummaries: Error building summary", e);
+        }
+        return summaries.toString();
+    }
+}
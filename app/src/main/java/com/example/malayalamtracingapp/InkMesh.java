@@ -0,0 +1,264 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Variable-width ink stored as triangle strips in preallocated vertex batches.
+ *
+ * Every stroke is appended as a strip of left/right vertex pairs and stitched to the
+ * previous stroke with degenerate triangles, so all ink in a batch is drawn with a
+ * single Canvas.drawVertices call. Each touch sample only appends two vertices, and
+ * batches are kept after clear() so steady-state tracing does not allocate.
+ */
+class InkMesh {
+
+    // Indices are shorts, so a batch must stay below 65536 vertices.
+    private static final int BATCH_VERTEX_CAPACITY = 8192;
+    // One index per vertex plus two stitching indices per strip; a strip has at least two vertices.
+    private static final int BATCH_INDEX_CAPACITY = BATCH_VERTEX_CAPACITY * 2;
+
+    private static final float MIN_PRESSURE_SCALE = 0.6f;
+    private static final float PRESSURE_RANGE = 0.8f;
+    // Pixels per millisecond at which the ink reaches its thinnest width.
+    private static final float THINNING_SPEED = 3f;
+    private static final float MIN_SPEED_SCALE = 0.55f;
+    private static final float WIDTH_SMOOTHING = 0.3f;
+
+    private static final class Batch {
+        final float[] vertices = new float[BATCH_VERTEX_CAPACITY * 2];
+        final int[] colors = new int[BATCH_VERTEX_CAPACITY];
+        final short[] indices = new short[BATCH_INDEX_CAPACITY];
+        int vertexCount;
+        int indexCount;
+    }
+
+    private final List<Batch> batches = new ArrayList<>();
+    private int activeBatchCount;
+
+    private final float baseHalfWidth;
+
+    // State of the stroke currently being appended
+    private boolean strokeOpen;
+    private int strokeColor;
+    private int strokePointCount;
+    private boolean stripStarted;
+    private float prevX, prevY, prevHalfWidth;
+    private long prevTime;
+
+    // Where the open stroke begins, so it can be recoloured or removed as a unit
+    private int strokeStartBatch;
+    private int strokeStartVertex;
+    private int strokeStartIndex;
+
+    InkMesh(float baseWidth) {
+        this.baseHalfWidth = baseWidth / 2f;
+        batches.add(new Batch());
+        activeBatchCount = 1;
+    }
+
+    /**
+     * Starts a new stroke. Samples are added with {@link #addPoint}.
+     */
+    void beginStroke(int color) {
+        strokeOpen = true;
+        strokeColor = color;
+        strokePointCount = 0;
+        stripStarted = false;
+
+        strokeStartBatch = activeBatchCount - 1;
+        Batch batch = batches.get(strokeStartBatch);
+        strokeStartVertex = batch.vertexCount;
+        strokeStartIndex = batch.indexCount;
+    }
+
+    /**
+     * Appends one touch sample to the open stroke. Width follows pressure and slows down
+     * to full width when the finger moves slowly.
+     */
+    void addPoint(float x, float y, float pressure, long eventTimeMillis) {
+        if (!strokeOpen) {
+            return;
+        }
+
+        if (strokePointCount == 0) {
+            prevX = x;
+            prevY = y;
+            prevTime = eventTimeMillis;
+            prevHalfWidth = targetHalfWidth(pressure, 0f);
+            strokePointCount = 1;
+            return;
+        }
+
+        float dx = x - prevX;
+        float dy = y - prevY;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        if (length < 0.5f) {
+            return;
+        }
+
+        long dt = eventTimeMillis - prevTime;
+        float speed = dt > 0 ? length / dt : 0f;
+        float halfWidth = prevHalfWidth + (targetHalfWidth(pressure, speed) - prevHalfWidth) * WIDTH_SMOOTHING;
+
+        float nx = -dy / length;
+        float ny = dx / length;
+
+        if (!stripStarted) {
+            startStrip(prevX, prevY, nx, ny, prevHalfWidth);
+        }
+        appendPair(x, y, nx, ny, halfWidth);
+
+        prevX = x;
+        prevY = y;
+        prevTime = eventTimeMillis;
+        prevHalfWidth = halfWidth;
+        strokePointCount++;
+    }
+
+    /**
+     * Recolours every vertex of the open stroke, e.g. when it turns from correct to incorrect.
+     */
+    void setStrokeColor(int color) {
+        if (!strokeOpen || color == strokeColor) {
+            return;
+        }
+        strokeColor = color;
+        for (int b = strokeStartBatch; b < activeBatchCount; b++) {
+            Batch batch = batches.get(b);
+            int from = b == strokeStartBatch ? strokeStartVertex : 0;
+            for (int v = from; v < batch.vertexCount; v++) {
+                batch.colors[v] = color;
+            }
+        }
+    }
+
+    /**
+     * Keeps the open stroke as finished ink.
+     */
+    void endStroke() {
+        strokeOpen = false;
+    }
+
+    /**
+     * Removes the open stroke and everything appended since {@link #beginStroke}.
+     */
+    void cancelStroke() {
+        if (!strokeOpen) {
+            return;
+        }
+        for (int b = strokeStartBatch + 1; b < activeBatchCount; b++) {
+            Batch batch = batches.get(b);
+            batch.vertexCount = 0;
+            batch.indexCount = 0;
+        }
+        Batch startBatch = batches.get(strokeStartBatch);
+        startBatch.vertexCount = strokeStartVertex;
+        startBatch.indexCount = strokeStartIndex;
+        activeBatchCount = strokeStartBatch + 1;
+        strokeOpen = false;
+    }
+
+    /**
+     * Drops all ink. Batches are kept for reuse.
+     */
+    void clear() {
+        for (int b = 0; b < activeBatchCount; b++) {
+            Batch batch = batches.get(b);
+            batch.vertexCount = 0;
+            batch.indexCount = 0;
+        }
+        activeBatchCount = 1;
+        strokeOpen = false;
+    }
+
+    /**
+     * Draws all finished and live ink, one drawVertices call per batch in use.
+     */
+    void draw(Canvas canvas, Paint paint) {
+        for (int b = 0; b < activeBatchCount; b++) {
+            Batch batch = batches.get(b);
+            if (batch.indexCount < 3) {
+                continue;
+            }
+            canvas.drawVertices(Canvas.VertexMode.TRIANGLE_STRIP,
+                    batch.vertexCount * 2, batch.vertices, 0,
+                    null, 0,
+                    batch.colors, 0,
+                    batch.indices, 0, batch.indexCount,
+                    paint);
+        }
+    }
+
+    private float targetHalfWidth(float pressure, float speed) {
+        float clampedPressure = Math.max(0f, Math.min(1f, pressure));
+        float pressureScale = MIN_PRESSURE_SCALE + clampedPressure * PRESSURE_RANGE;
+        float speedScale = 1f - (1f - MIN_SPEED_SCALE) * Math.min(1f, speed / THINNING_SPEED);
+        return baseHalfWidth * pressureScale * speedScale;
+    }
+
+    private void startStrip(float x, float y, float nx, float ny, float halfWidth) {
+        Batch batch = ensureCapacity();
+        if (batch.indexCount > 0) {
+            // Degenerate triangles join this strip to the previous one in the same batch
+            batch.indices[batch.indexCount] = batch.indices[batch.indexCount - 1];
+            batch.indices[batch.indexCount + 1] = (short) batch.vertexCount;
+            batch.indexCount += 2;
+        }
+        putPair(batch, x, y, nx, ny, halfWidth);
+        stripStarted = true;
+    }
+
+    private void appendPair(float x, float y, float nx, float ny, float halfWidth) {
+        Batch batch = batches.get(activeBatchCount - 1);
+        if (batch.vertexCount + 2 > BATCH_VERTEX_CAPACITY) {
+            // Continue the strip in a fresh batch, repeating the last pair so there is no gap
+            int last = batch.vertexCount - 2;
+            float leftX = batch.vertices[last * 2];
+            float leftY = batch.vertices[last * 2 + 1];
+            float rightX = batch.vertices[last * 2 + 2];
+            float rightY = batch.vertices[last * 2 + 3];
+
+            batch = nextBatch();
+            putVertex(batch, leftX, leftY);
+            putVertex(batch, rightX, rightY);
+        }
+        putPair(batch, x, y, nx, ny, halfWidth);
+    }
+
+    private Batch ensureCapacity() {
+        Batch batch = batches.get(activeBatchCount - 1);
+        if (batch.vertexCount + 4 > BATCH_VERTEX_CAPACITY || batch.indexCount + 6 > BATCH_INDEX_CAPACITY) {
+            batch = nextBatch();
+        }
+        return batch;
+    }
+
+    private Batch nextBatch() {
+        if (activeBatchCount == batches.size()) {
+            batches.add(new Batch());
+        }
+        Batch batch = batches.get(activeBatchCount);
+        batch.vertexCount = 0;
+        batch.indexCount = 0;
+        activeBatchCount++;
+        return batch;
+    }
+
+    private void putPair(Batch batch, float x, float y, float nx, float ny, float halfWidth) {
+        putVertex(batch, x + nx * halfWidth, y + ny * halfWidth);
+        putVertex(batch, x - nx * halfWidth, y - ny * halfWidth);
+    }
+
+    private void putVertex(Batch batch, float x, float y) {
+        int v = batch.vertexCount;
+        batch.vertices[v * 2] = x;
+        batch.vertices[v * 2 + 1] = y;
+        batch.colors[v] = strokeColor;
+        batch.indices[batch.indexCount++] = (short) v;
+        batch.vertexCount = v + 1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.malayalamtracingapp;
+
+/**
+ * Fixed-size histogram of durations in nanoseconds.
+ *
+ * Buckets are a quarter of a millisecond wide up to {@link #RANGE_MILLIS}; anything
+ * longer lands in a single overflow bucket. Recording is a bounds check and an
+ * increment, so it is safe to call every frame.
+ */
+class LatencyHistogram {
+
+    static final int RANGE_MILLIS = 250;
+    private static final long BUCKET_WIDTH_NANOS = 250_000L;
+    private static final int BUCKET_COUNT = (int) (RANGE_MILLIS * 1_000_000L / BUCKET_WIDTH_NANOS);
+
+    // Last slot is the overflow bucket
+    private final int[] buckets = new int[BUCKET_COUNT + 1];
+    private int count;
+    private long maxNanos;
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        int bucket = (int) Math.min(nanos / BUCKET_WIDTH_NANOS, BUCKET_COUNT);
+        buckets[bucket]++;
+        count++;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    void reset() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = 0;
+        }
+        count = 0;
+        maxNanos = 0;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    float getMaxMillis() {
+        return maxNanos / 1_000_000f;
+    }
+
+    /**
+     * Upper edge of the bucket holding the given percentile (0-100), in milliseconds.
+     * Values in the overflow bucket report the recorded maximum.
+     */
+    float percentileMillis(float percentile) {
+        if (count == 0) {
+            return 0f;
+        }
+        long rank = (long) Math.ceil(count * (percentile / 100.0));
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min((i + 1) * BUCKET_WIDTH_NANOS, maxNanos) / 1_000_000f;
+            }
+        }
+        return getMaxMillis();
+    }
+}
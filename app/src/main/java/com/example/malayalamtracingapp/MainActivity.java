@@ -1,9 +1,17 @@
 package com.example.malayalamtracingapp;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import android.content.Context;
+import android.content.DialogInterface;
 import android.os.Bundle;
+import android.util.DisplayMetrics;
+import android.view.Gravity;
 import android.view.View;
+import android.widget.AdapterView;
 import android.widget.Button;
+import android.widget.GridView;
+import android.widget.TextView;
 import android.widget.Toast;
 import android.util.Log; // Import Log for debugging
 
@@ -16,30 +24,55 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
 
     private TracingView tracingView;
-    private Button resetButton, prevButton, nextButton;
+    private Button resetButton, prevButton, nextButton, showMeButton, lettersButton, wordsButton, classroomButton;
+    private TextView titleTextView;
+    private FrameMetricsCollector frameMetricsCollector;
+    private HandwritingAnalytics handwritingAnalytics;
 
-    // Data class to hold alphabet information
-    private static class Alphabet {
-        String name;
-        List<String> strokes;
+    // Thumbnails for the glyph picker, created the first time it is opened
+    private GlyphThumbnailAtlas thumbnailAtlas;
+    private static final int PICKER_CELL_DP = 88;
+    // Rows of thumbnails kept past each edge of the picker so short scrolls don't reload them
+    private static final int PICKER_MARGIN_ROWS = 2;
 
-        Alphabet(String name, List<String> strokes) {
-            this.name = name;
-            this.strokes = strokes;
+    // Decoded stroke data kept in memory; the rest stays in the mapped glyph pack
+    private static final long GLYPH_CACHE_BUDGET_BYTES = 256 * 1024;
+
+    // Data class for a practice word, spelled as glyph names from the alphabet list
+    private static class Word {
+        String text;
+        List<String> glyphs;
+
+        Word(String text, List<String> glyphs) {
+            this.text = text;
+            this.glyphs = glyphs;
         }
     }
 
-    // List to store parsed Alphabet objects
-    private List<Alphabet> malayalamAlphabets;
+    // Glyph templates, read from a pack built from res/raw/malayalam_alphabets.json; null until opened
+    private PackedGlyphRepository glyphRepository;
+    // Opens the glyph pack off the main thread, since the first launch has to build it
+    private final ExecutorService glyphLoader = Executors.newSingleThreadExecutor();
     private int currentCharacterIndex = 0;
 
+    private List<Word> malayalamWords;
+    private int currentWordIndex = 0;
+    private boolean wordMode = false;
+
+    // Classroom mode splits the view into this many lanes; 0 when off
+    private int classroomLanes = 0;
+    private static final int MAX_CLASSROOM_LANES = 3;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -49,36 +82,113 @@ public class MainActivity extends AppCompatActivity {
         resetButton = findViewById(R.id.resetButton);
         prevButton = findViewById(R.id.prevButton);
         nextButton = findViewById(R.id.nextButton);
+        showMeButton = findViewById(R.id.showMeButton);
+        lettersButton = findViewById(R.id.lettersButton);
+        wordsButton = findViewById(R.id.wordsButton);
+        classroomButton = findViewById(R.id.classroomButton);
+        titleTextView = findViewById(R.id.titleTextView);
 
-        malayalamAlphabets = new ArrayList<>();
-        loadAlphabetsFromJson(); // Load data from JSON file
+        frameMetricsCollector = new FrameMetricsCollector();
+        tracingView.setFrameMetricsCollector(frameMetricsCollector);
 
-        // Ensure there's at least one character to display
-        if (malayalamAlphabets.isEmpty()) {
-            Toast.makeText(this, "No Malayalam characters loaded from JSON! Please check res/raw/malayalam_alphabets.json", Toast.LENGTH_LONG).show();
-            return;
-        }
+        handwritingAnalytics = new HandwritingAnalytics();
+        handwritingAnalytics.setListener(new HandwritingAnalytics.Listener() {
+            @Override
+            public void onStrokeAttempt(StrokeAttempt attempt) {
+                Log.d(TAG, "Stroke attempt: " + attempt);
+            }
+        });
+        tracingView.setHandwritingAnalytics(handwritingAnalytics);
 
-        // Set the initial character
-        loadCharacter(currentCharacterIndex);
+        // Long-press the title to show frame telemetry; hiding it logs the per-glyph summaries
+        // and starts a new session, so each log covers one stretch of practice
+        titleTextView.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                boolean showHud = !tracingView.isMetricsHudEnabled();
+                // Frame telemetry is only collected while the HUD is up
+                frameMetricsCollector.setEnabled(showHud);
+                tracingView.setMetricsHudEnabled(showHud);
+                if (!showHud) {
+                    Log.i(TAG, "Frame metrics: " + frameMetricsCollector.exportSummaries());
+                    Log.i(TAG, "Handwriting quality: " + handwritingAnalytics.exportSummaries());
+                    frameMetricsCollector.reset();
+                    handwritingAnalytics.reset();
+                }
+                return true;
+            }
+        });
+
+        malayalamWords = new ArrayList<>();
+        loadWordsFromJson();
+
+        // The buttons all need the glyphs, so they stay disabled until the pack is open
+        setButtonsEnabled(false);
+        loadGlyphRepository();
 
         // Set up button listeners
         resetButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
                 tracingView.resetTracing();
-                Toast.makeText(MainActivity.this, "Tracing reset!", Toast.LENGTH_SHORT).show();
+                tracingView.showMessage("Tracing reset!");
+            }
+        });
+
+        lettersButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showGlyphPicker();
+            }
+        });
+
+        wordsButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (wordMode) {
+                    setWordMode(false);
+                    loadCharacter(currentCharacterIndex);
+                } else if (!malayalamWords.isEmpty()) {
+                    setWordMode(true);
+                    loadWord(currentWordIndex);
+                } else {
+                    tracingView.showMessage("No practice words available.");
+                }
+            }
+        });
+
+        // Cycles through off, 2 lanes and 3 lanes
+        classroomButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                setWordMode(false);
+                setClassroomLanes(classroomLanes == 0 ? 2 : (classroomLanes < MAX_CLASSROOM_LANES ? classroomLanes + 1 : 0));
+                loadCharacter(currentCharacterIndex);
+            }
+        });
+
+        showMeButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                tracingView.playStrokeDemo();
             }
         });
 
         prevButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                if (currentCharacterIndex > 0) {
+                if (wordMode) {
+                    if (currentWordIndex > 0) {
+                        currentWordIndex--;
+                        loadWord(currentWordIndex);
+                    } else {
+                        tracingView.showMessage("First word reached!");
+                    }
+                } else if (currentCharacterIndex > 0) {
                     currentCharacterIndex--;
                     loadCharacter(currentCharacterIndex);
                 } else {
-                    Toast.makeText(MainActivity.this, "First character reached!", Toast.LENGTH_SHORT).show();
+                    tracingView.showMessage("First character reached!");
                 }
             }
         });
@@ -86,26 +196,179 @@ public class MainActivity extends AppCompatActivity {
         nextButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                if (currentCharacterIndex < malayalamAlphabets.size() - 1) {
+                if (wordMode) {
+                    if (currentWordIndex < malayalamWords.size() - 1) {
+                        currentWordIndex++;
+                        loadWord(currentWordIndex);
+                    } else {
+                        tracingView.showMessage("Last word reached!");
+                    }
+                } else if (currentCharacterIndex < glyphRepository.getGlyphCount() - 1) {
                     currentCharacterIndex++;
                     loadCharacter(currentCharacterIndex);
                 } else {
-                    Toast.makeText(MainActivity.this, "Last character reached!", Toast.LENGTH_SHORT).show();
+                    tracingView.showMessage("Last character reached!");
                 }
             }
         });
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        frameMetricsCollector.start(getWindow());
+    }
+
+    @Override
+    protected void onPause() {
+        frameMetricsCollector.stop();
+        super.onPause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        glyphLoader.shutdown();
+        if (thumbnailAtlas != null) {
+            thumbnailAtlas.shutdown();
+        }
+        if (glyphRepository != null) {
+            try {
+                glyphRepository.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing glyph pack", e);
+            }
+        }
+        super.onDestroy();
+    }
+
     /**
-     * Reads and parses alphabet data from res/raw/malayalam_alphabets.json.
+     * Shows every character as a thumbnail grid and jumps straight to the one picked.
      */
-    private void loadAlphabetsFromJson() {
+    private void showGlyphPicker() {
+        // Keep the cell a multiple of 4 pixels so atlas rows have no padding
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        int cellSize = Math.round(PICKER_CELL_DP * metrics.density) & ~3;
+        if (thumbnailAtlas == null) {
+            // Enough slots for a screenful of cells in either orientation, plus two rows either way
+            int across = Math.max(metrics.widthPixels, metrics.heightPixels) / cellSize + 1;
+            int down = Math.min(metrics.widthPixels, metrics.heightPixels) / cellSize + 1;
+            int slotCount = (down + 2 * PICKER_MARGIN_ROWS) * across;
+            thumbnailAtlas = new GlyphThumbnailAtlas(this, glyphRepository, glyphRepository.getPackName(), cellSize, slotCount);
+        }
+
+        GridView gridView = new GridView(this);
+        gridView.setColumnWidth(cellSize);
+        gridView.setNumColumns(GridView.AUTO_FIT);
+        gridView.setStretchMode(GridView.STRETCH_SPACING_UNIFORM);
+        gridView.setGravity(Gravity.CENTER);
+
+        GlyphPickerAdapter adapter = new GlyphPickerAdapter(glyphRepository, thumbnailAtlas, cellSize, currentCharacterIndex);
+        adapter.attachTo(gridView);
+        gridView.setSelection(currentCharacterIndex);
+
+        final AlertDialog dialog = new AlertDialog.Builder(this)
+                .setTitle("Choose a letter")
+                .setView(gridView)
+                .setNegativeButton("Close", null)
+                .create();
+
+        gridView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                currentCharacterIndex = position;
+                setWordMode(false);
+                loadCharacter(currentCharacterIndex);
+                dialog.dismiss();
+            }
+        });
+        // The atlas outlives the dialog; stop it calling into the dismissed grid
+        dialog.setOnDismissListener(new DialogInterface.OnDismissListener() {
+            @Override
+            public void onDismiss(DialogInterface d) {
+                thumbnailAtlas.setListener(null);
+            }
+        });
+        dialog.show();
+    }
+
+    /**
+     * Opens the glyph pack for res/raw/malayalam_alphabets.json in the background, building
+     * it on first launch, and shows the first character once it is ready.
+     */
+    private void loadGlyphRepository() {
+        final Context appContext = getApplicationContext();
+        glyphLoader.execute(new Runnable() {
+            @Override
+            public void run() {
+                PackedGlyphRepository repository = null;
+                IOException error = null;
+                try {
+                    repository = GlyphPackImporter.open(appContext, R.raw.malayalam_alphabets, GLYPH_CACHE_BUDGET_BYTES);
+                } catch (IOException e) {
+                    error = e;
+                }
+                final PackedGlyphRepository loaded = repository;
+                final IOException failure = error;
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        onGlyphRepositoryLoaded(loaded, failure);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onGlyphRepositoryLoaded(PackedGlyphRepository repository, IOException error) {
+        if (isDestroyed()) {
+            if (repository != null) {
+                try {
+                    repository.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "Error closing glyph pack", e);
+                }
+            }
+            return;
+        }
+        if (error != null) {
+            Log.e(TAG, "Error loading malayalam_alphabets.json", error);
+            Toast.makeText(this, "Error loading alphabet data: " + error.getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
+        glyphRepository = repository;
+        Log.d(TAG, "Loaded " + glyphRepository.getGlyphCount() + " characters.");
+
+        // Ensure there's at least one character to display
+        if (glyphRepository.getGlyphCount() == 0) {
+            Toast.makeText(this, "No Malayalam characters loaded from JSON! Please check res/raw/malayalam_alphabets.json", Toast.LENGTH_LONG).show();
+            return;
+        }
+        setButtonsEnabled(true);
+
+        // Set the initial character
+        loadCharacter(currentCharacterIndex);
+    }
+
+    private void setButtonsEnabled(boolean enabled) {
+        resetButton.setEnabled(enabled);
+        prevButton.setEnabled(enabled);
+        nextButton.setEnabled(enabled);
+        showMeButton.setEnabled(enabled);
+        lettersButton.setEnabled(enabled);
+        wordsButton.setEnabled(enabled);
+        classroomButton.setEnabled(enabled);
+    }
+
+    /**
+     * Reads the practice words from res/raw/malayalam_words.json.
+     */
+    private void loadWordsFromJson() {
         InputStream inputStream = null;
         BufferedReader reader = null;
         StringBuilder jsonString = new StringBuilder();
 
         try {
-            inputStream = getResources().openRawResource(R.raw.malayalam_alphabets);
+            inputStream = getResources().openRawResource(R.raw.malayalam_words);
             reader = new BufferedReader(new InputStreamReader(inputStream));
             String line;
             while ((line = reader.readLine()) != null) {
@@ -114,24 +377,22 @@ public class MainActivity extends AppCompatActivity {
 
             JSONArray jsonArray = new JSONArray(jsonString.toString());
             for (int i = 0; i < jsonArray.length(); i++) {
-                JSONObject alphabetObject = jsonArray.getJSONObject(i);
-                String name = alphabetObject.getString("name");
-                JSONArray strokesArray = alphabetObject.getJSONArray("strokes");
+                JSONObject wordObject = jsonArray.getJSONObject(i);
+                String text = wordObject.getString("word");
+                JSONArray glyphsArray = wordObject.getJSONArray("glyphs");
 
-                List<String> strokes = new ArrayList<>();
-                for (int j = 0; j < strokesArray.length(); j++) {
-                    strokes.add(strokesArray.getString(j));
+                List<String> glyphs = new ArrayList<>();
+                for (int j = 0; j < glyphsArray.length(); j++) {
+                    glyphs.add(glyphsArray.getString(j));
                 }
-                malayalamAlphabets.add(new Alphabet(name, strokes));
-                Log.d(TAG, "Loaded character: " + name + " with " + strokes.size() + " strokes.");
+                malayalamWords.add(new Word(text, glyphs));
+                Log.d(TAG, "Loaded word: " + text + " with " + glyphs.size() + " glyphs.");
             }
 
         } catch (IOException e) {
-            Log.e(TAG, "Error reading malayalam_alphabets.json", e);
-            Toast.makeText(this, "Error loading alphabet data: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            Log.e(TAG, "Error reading malayalam_words.json", e);
         } catch (JSONException e) {
-            Log.e(TAG, "Error parsing malayalam_alphabets.json", e);
-            Toast.makeText(this, "Error parsing alphabet data: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            Log.e(TAG, "Error parsing malayalam_words.json", e);
         } finally {
             try {
                 if (reader != null) reader.close();
@@ -142,16 +403,63 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    private void setWordMode(boolean enabled) {
+        wordMode = enabled;
+        wordsButton.setText(enabled ? "Alphabet" : "Words");
+        if (enabled) {
+            setClassroomLanes(0);
+        }
+    }
+
+    private void setClassroomLanes(int count) {
+        classroomLanes = count;
+        classroomButton.setText(count == 0 ? "Class" : "Class (" + count + ")");
+    }
+
+    /**
+     * Loads the word at the given index into the TracingView in word mode.
+     * @param index The index of the word to load from the list.
+     */
+    private void loadWord(int index) {
+        if (index < 0 || index >= malayalamWords.size()) {
+            return;
+        }
+        Word word = malayalamWords.get(index);
+        int[] glyphIndices = new int[word.glyphs.size()];
+        for (int i = 0; i < glyphIndices.length; i++) {
+            glyphIndices[i] = glyphRepository.indexOf(word.glyphs.get(i));
+            if (glyphIndices[i] < 0) {
+                Log.e(TAG, "loadWord: Word " + word.text + " uses unknown glyph " + word.glyphs.get(i));
+                tracingView.showMessage("Cannot load " + word.text);
+                return;
+            }
+        }
+        frameMetricsCollector.setGlyph(word.text);
+        handwritingAnalytics.setGlyph(word.text);
+        tracingView.setWord(glyphRepository, glyphIndices);
+        tracingView.showMessage("Loading " + word.text + " (" + (index + 1) + " of " + malayalamWords.size() + ")");
+        Log.d(TAG, "Displaying word: " + word.text);
+    }
+
     /**
      * Loads the character at the given index into the TracingView.
      * @param index The index of the character to load from the list.
      */
     private void loadCharacter(int index) {
-        if (index >= 0 && index < malayalamAlphabets.size()) {
-            Alphabet currentAlphabet = malayalamAlphabets.get(index);
-            tracingView.setSvgPaths(currentAlphabet.strokes); // Pass the list of strokes
-            Toast.makeText(this, "Loading " + currentAlphabet.name + " (" + (index + 1) + " of " + malayalamAlphabets.size() + ")", Toast.LENGTH_SHORT).show();
-            Log.d(TAG, "Displaying character: " + currentAlphabet.name);
+        if (index >= 0 && index < glyphRepository.getGlyphCount()) {
+            String name = glyphRepository.getName(index);
+            frameMetricsCollector.setGlyph(name);
+            handwritingAnalytics.setGlyph(name);
+            if (classroomLanes > 0) {
+                // Every lane starts on the same character and then moves on at its own pace
+                int[] laneGlyphs = new int[classroomLanes];
+                Arrays.fill(laneGlyphs, index);
+                tracingView.setClassroom(glyphRepository, laneGlyphs);
+            } else {
+                tracingView.setStrokes(glyphRepository.getStrokes(index)); // Pass the list of strokes
+            }
+            tracingView.showMessage("Loading " + name + " (" + (index + 1) + " of " + glyphRepository.getGlyphCount() + ")");
+            Log.d(TAG, "Displaying character: " + name);
         }
     }
 }
@@ -0,0 +1,170 @@
+package com.example.malayalamtracingapp;
+
+/**
+ * Predicts where the finger will be a short time ahead of the newest touch sample.
+ *
+ * A quadratic (position, velocity, acceleration) is fitted by least squares to the most
+ * recent samples of each axis and extrapolated by the prediction horizon. Samples live
+ * in a fixed ring buffer, so adding samples and predicting never allocates.
+ */
+class MotionPredictor {
+
+    static final int DEFAULT_WINDOW_SIZE = 6;
+    static final float DEFAULT_HORIZON_MILLIS = 16f;
+    static final float DEFAULT_MAX_EXTENSION = 60f;
+
+    // Samples older than this relative to the newest one are ignored by the fit.
+    private static final float MAX_SAMPLE_AGE_MILLIS = 100f;
+    private static final double SINGULAR_EPSILON = 1e-9;
+
+    private final float[] xs;
+    private final float[] ys;
+    private final long[] times;
+    private int head;
+    private int count;
+
+    private final float horizonMillis;
+    private final float maxExtension;
+
+    MotionPredictor() {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_HORIZON_MILLIS, DEFAULT_MAX_EXTENSION);
+    }
+
+    /**
+     * @param windowSize    Number of recent samples used for the fit (at least 2).
+     * @param horizonMillis How far ahead of the newest sample to predict.
+     * @param maxExtension  Longest allowed distance between the newest sample and the prediction.
+     */
+    MotionPredictor(int windowSize, float horizonMillis, float maxExtension) {
+        if (windowSize < 2) {
+            throw new IllegalArgumentException("windowSize must be at least 2");
+        }
+        xs = new float[windowSize];
+        ys = new float[windowSize];
+        times = new long[windowSize];
+        this.horizonMillis = horizonMillis;
+        this.maxExtension = maxExtension;
+    }
+
+    float getHorizonMillis() {
+        return horizonMillis;
+    }
+
+    void reset() {
+        head = 0;
+        count = 0;
+    }
+
+    void addSample(float x, float y, long timeMillis) {
+        if (count > 0 && timeMillis <= times[newestSlot()]) {
+            // Same timestamp as the previous sample: keep the latest position only
+            xs[newestSlot()] = x;
+            ys[newestSlot()] = y;
+            return;
+        }
+        xs[head] = x;
+        ys[head] = y;
+        times[head] = timeMillis;
+        head = (head + 1) % xs.length;
+        if (count < xs.length) {
+            count++;
+        }
+    }
+
+    /**
+     * Writes the predicted position into out[0], out[1].
+     *
+     * @return false if there are not enough recent samples to predict.
+     */
+    boolean predict(float[] out) {
+        if (count < 2 || horizonMillis <= 0) {
+            return false;
+        }
+
+        int newest = newestSlot();
+        long newestTime = times[newest];
+
+        // Sums of t^k and value * t^k, with t relative to the newest sample (t <= 0)
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double x0 = 0, x1 = 0, x2 = 0;
+        double y0 = 0, y1 = 0, y2 = 0;
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = (newest - i + xs.length) % xs.length;
+            double t = times[slot] - newestTime;
+            if (-t > MAX_SAMPLE_AGE_MILLIS) {
+                break;
+            }
+            double t2 = t * t;
+            s0 += 1;
+            s1 += t;
+            s2 += t2;
+            s3 += t2 * t;
+            s4 += t2 * t2;
+            x0 += xs[slot];
+            x1 += xs[slot] * t;
+            x2 += xs[slot] * t2;
+            y0 += ys[slot];
+            y1 += ys[slot] * t;
+            y2 += ys[slot] * t2;
+            used++;
+        }
+        if (used < 2) {
+            return false;
+        }
+
+        double h = horizonMillis;
+        double predictedX;
+        double predictedY;
+
+        double det = used >= 3 ? determinant3(s0, s1, s2, s1, s2, s3, s2, s3, s4) : 0;
+        if (Math.abs(det) > SINGULAR_EPSILON) {
+            // Quadratic fit: value(t) = a + b t + c t^2
+            double ax = determinant3(x0, s1, s2, x1, s2, s3, x2, s3, s4) / det;
+            double bx = determinant3(s0, x0, s2, s1, x1, s3, s2, x2, s4) / det;
+            double cx = determinant3(s0, s1, x0, s1, s2, x1, s2, s3, x2) / det;
+            double ay = determinant3(y0, s1, s2, y1, s2, s3, y2, s3, s4) / det;
+            double by = determinant3(s0, y0, s2, s1, y1, s3, s2, y2, s4) / det;
+            double cy = determinant3(s0, s1, y0, s1, s2, y1, s2, s3, y2) / det;
+            predictedX = ax + bx * h + cx * h * h;
+            predictedY = ay + by * h + cy * h * h;
+        } else {
+            // Linear fit: value(t) = a + b t
+            double linearDet = s0 * s2 - s1 * s1;
+            if (Math.abs(linearDet) <= SINGULAR_EPSILON) {
+                return false;
+            }
+            double bx = (s0 * x1 - s1 * x0) / linearDet;
+            double by = (s0 * y1 - s1 * y0) / linearDet;
+            double ax = (x0 - bx * s1) / s0;
+            double ay = (y0 - by * s1) / s0;
+            predictedX = ax + bx * h;
+            predictedY = ay + by * h;
+        }
+
+        // Extend from the real newest sample so the prediction never detaches from the ink
+        float lastX = xs[newest];
+        float lastY = ys[newest];
+        float dx = (float) predictedX - lastX;
+        float dy = (float) predictedY - lastY;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        if (length > maxExtension && length > 0) {
+            float scale = maxExtension / length;
+            dx *= scale;
+            dy *= scale;
+        }
+        out[0] = lastX + dx;
+        out[1] = lastY + dy;
+        return true;
+    }
+
+    private int newestSlot() {
+        return (head - 1 + xs.length) % xs.length;
+    }
+
+    private static double determinant3(double a, double b, double c,
+                                       double d, double e, double f,
+                                       double g, double h, double i) {
+        return a * (e * i - f * h) - b * (d * i - f * g) + c * (d * h - e * g);
+    }
+}
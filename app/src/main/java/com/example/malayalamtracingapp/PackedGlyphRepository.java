@@ -0,0 +1,229 @@
+package com.example.malayalamtracingapp;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link GlyphRepository} over a memory-mapped pack written by {@link GlyphPackWriter}.
+ *
+ * Only the index (names, stroke counts, bounds and data offsets) lives on the heap.
+ * Stroke data stays in the mapped file and is decoded when asked for. Decoded glyphs
+ * are kept in an LRU cache that is trimmed to a byte budget, so heap use does not
+ * grow with the size of the pack.
+ */
+class PackedGlyphRepository implements GlyphRepository, Closeable {
+
+    static final long DEFAULT_CACHE_BUDGET_BYTES = 256 * 1024;
+
+    // Rough heap cost of a decoded stroke list, for budgeting
+    private static final int LIST_OVERHEAD_BYTES = 48;
+    // The PackedPath object and the headers of its two arrays
+    private static final int PATH_OVERHEAD_BYTES = 48;
+
+    private final String packName;
+    private final RandomAccessFile file;
+    private final MappedByteBuffer data;
+
+    private final String[] names;
+    private final short[] strokeCounts;
+    private final float[] bounds;
+    private final int[] offsets;
+    private final int[] lengths;
+    // Glyph indices sorted by name, for indexOf
+    private final int[] byName;
+
+    private final long cacheBudgetBytes;
+    private long cachedBytes;
+    private final LinkedHashMap<Integer, List<PackedPath>> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Integer> cachedCosts = new HashMap<>();
+
+    PackedGlyphRepository(File packFile) throws IOException {
+        this(packFile, DEFAULT_CACHE_BUDGET_BYTES);
+    }
+
+    PackedGlyphRepository(File packFile, long cacheBudgetBytes) throws IOException {
+        this.cacheBudgetBytes = cacheBudgetBytes;
+        packName = packFile.getName();
+        file = new RandomAccessFile(packFile, "r");
+        try {
+            long size = file.length();
+            if (size < 8 + GlyphPackWriter.FOOTER_SIZE) {
+                throw new IOException("Glyph pack too small: " + packFile);
+            }
+            data = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (data.getInt(0) != GlyphPackWriter.MAGIC || data.getInt(4) != GlyphPackWriter.VERSION) {
+                throw new IOException("Not a glyph pack, or unsupported version: " + packFile);
+            }
+
+            long indexOffset = data.getLong((int) size - GlyphPackWriter.FOOTER_SIZE);
+            int count = data.getInt((int) size - 4);
+            names = new String[count];
+            strokeCounts = new short[count];
+            bounds = new float[count * 4];
+            offsets = new int[count];
+            lengths = new int[count];
+
+            ByteBuffer index = data.duplicate();
+            index.position((int) indexOffset);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[index.getShort()];
+                index.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+                strokeCounts[i] = index.getShort();
+                bounds[i * 4] = index.getFloat();
+                bounds[i * 4 + 1] = index.getFloat();
+                bounds[i * 4 + 2] = index.getFloat();
+                bounds[i * 4 + 3] = index.getFloat();
+                offsets[i] = index.getInt();
+                lengths[i] = index.getInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Corrupt glyph pack: " + packFile, e);
+        }
+
+        Integer[] sorted = new Integer[names.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return names[a].compareTo(names[b]);
+            }
+        });
+        byName = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            byName[i] = sorted[i];
+        }
+    }
+
+    @Override
+    public int getGlyphCount() {
+        return names.length;
+    }
+
+    @Override
+    public String getName(int index) {
+        return names[index];
+    }
+
+    @Override
+    public int getStrokeCount(int index) {
+        return strokeCounts[index];
+    }
+
+    @Override
+    public void getBounds(int index, float[] out) {
+        System.arraycopy(bounds, index * 4, out, 0, 4);
+    }
+
+    @Override
+    public int indexOf(String name) {
+        int low = 0;
+        int high = byName.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compare = names[byName[mid]].compareTo(name);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return byName[mid];
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized List<PackedPath> getStrokes(int index) {
+        List<PackedPath> strokes = cache.get(index);
+        if (strokes != null) {
+            return strokes;
+        }
+
+        int count = strokeCounts[index];
+        List<PackedPath> decoded = new ArrayList<>(count);
+        int cost = LIST_OVERHEAD_BYTES;
+        ByteBuffer slice = data.duplicate();
+        slice.position(offsets[index]);
+        for (int i = 0; i < count; i++) {
+            byte[] ops = new byte[slice.getInt()];
+            float[] coords = new float[slice.getInt()];
+            slice.get(ops);
+            slice.asFloatBuffer().get(coords);
+            slice.position(slice.position() + coords.length * 4);
+            decoded.add(new PackedPath(ops, coords));
+            cost += PATH_OVERHEAD_BYTES + ops.length + coords.length * 4;
+        }
+        strokes = Collections.unmodifiableList(decoded);
+
+        cache.put(index, strokes);
+        cachedCosts.put(index, cost);
+        cachedBytes += cost;
+        trimCache(index);
+        return strokes;
+    }
+
+    /**
+     * Estimated heap held by decoded glyphs currently cached.
+     */
+    synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    long getCacheBudgetBytes() {
+        return cacheBudgetBytes;
+    }
+
+    /**
+     * File name of the pack, which changes whenever the pack is rebuilt.
+     */
+    String getPackName() {
+        return packName;
+    }
+
+    synchronized void clearCache() {
+        cache.clear();
+        cachedCosts.clear();
+        cachedBytes = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        clearCache();
+        file.close();
+    }
+
+    /**
+     * Evicts least recently used glyphs until the cache fits its budget. The glyph just
+     * decoded is always kept, even if it alone is over budget.
+     */
+    private void trimCache(int keep) {
+        Iterator<Map.Entry<Integer, List<PackedPath>>> iterator = cache.entrySet().iterator();
+        while (cachedBytes > cacheBudgetBytes && iterator.hasNext()) {
+            Map.Entry<Integer, List<PackedPath>> eldest = iterator.next();
+            if (eldest.getKey() == keep) {
+                continue;
+            }
+            cachedBytes -= cachedCosts.remove(eldest.getKey());
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Path;
+
+import java.util.Arrays;
+
+/**
+ * One stroke as absolute path commands: an op per command, with all of their
+ * coordinates packed into a single float array.
+ *
+ * Glyph packs store strokes in this form, parsed from SVG once when the pack is
+ * imported, so turning a stroke into a Path only replays the commands. Instances are
+ * immutable.
+ */
+final class PackedPath {
+
+    static final byte MOVE = 0;
+    static final byte LINE = 1;
+    static final byte QUAD = 2;
+    static final byte CUBIC = 3;
+    static final byte CLOSE = 4;
+
+    private final byte[] ops;
+    private final float[] coords;
+
+    /**
+     * Takes ownership of the arrays; coords must hold exactly the coordinates the ops use.
+     */
+    PackedPath(byte[] ops, float[] coords) {
+        this.ops = ops;
+        this.coords = coords;
+    }
+
+    /**
+     * Number of coordinates the op takes, two per point.
+     */
+    static int coordCount(byte op) {
+        switch (op) {
+            case MOVE:
+            case LINE:
+                return 2;
+            case QUAD:
+                return 4;
+            case CUBIC:
+                return 6;
+            case CLOSE:
+                return 0;
+            default:
+                throw new IllegalArgumentException("Unknown path op " + op);
+        }
+    }
+
+    int getOpCount() {
+        return ops.length;
+    }
+
+    byte getOp(int index) {
+        return ops[index];
+    }
+
+    int getCoordCount() {
+        return coords.length;
+    }
+
+    /**
+     * Coordinates in x, y order; every one of them is a point on or controlling the path.
+     */
+    float getCoord(int index) {
+        return coords[index];
+    }
+
+    /**
+     * True if the stroke has no lines or curves, e.g. because its SVG data was malformed.
+     */
+    boolean isEmpty() {
+        for (byte op : ops) {
+            if (op != MOVE && op != CLOSE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Path toPath() {
+        Path path = new Path();
+        int c = 0;
+        for (byte op : ops) {
+            switch (op) {
+                case MOVE:
+                    path.moveTo(coords[c], coords[c + 1]);
+                    break;
+                case LINE:
+                    path.lineTo(coords[c], coords[c + 1]);
+                    break;
+                case QUAD:
+                    path.quadTo(coords[c], coords[c + 1], coords[c + 2], coords[c + 3]);
+                    break;
+                case CUBIC:
+                    path.cubicTo(coords[c], coords[c + 1], coords[c + 2], coords[c + 3], coords[c + 4], coords[c + 5]);
+                    break;
+                case CLOSE:
+                    path.close();
+                    break;
+            }
+            c += coordCount(op);
+        }
+        return path;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PackedPath)) {
+            return false;
+        }
+        PackedPath that = (PackedPath) other;
+        return Arrays.equals(ops, that.ops) && Arrays.equals(coords, that.coords);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(ops) + Arrays.hashCode(coords);
+    }
+
+    /**
+     * Collects commands in absolute coordinates.
+     */
+    static final class Builder {
+
+        private byte[] ops = new byte[16];
+        private float[] coords = new float[64];
+        private int opCount;
+        private int coordCount;
+
+        Builder moveTo(float x, float y) {
+            add(MOVE);
+            return put(x, y);
+        }
+
+        Builder lineTo(float x, float y) {
+            add(LINE);
+            return put(x, y);
+        }
+
+        Builder quadTo(float x1, float y1, float x2, float y2) {
+            add(QUAD);
+            return put(x1, y1).put(x2, y2);
+        }
+
+        Builder cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            add(CUBIC);
+            return put(x1, y1).put(x2, y2).put(x3, y3);
+        }
+
+        Builder close() {
+            add(CLOSE);
+            return this;
+        }
+
+        /**
+         * Drops every command collected so far.
+         */
+        Builder reset() {
+            opCount = 0;
+            coordCount = 0;
+            return this;
+        }
+
+        int getOpCount() {
+            return opCount;
+        }
+
+        PackedPath build() {
+            return new PackedPath(Arrays.copyOf(ops, opCount), Arrays.copyOf(coords, coordCount));
+        }
+
+        private void add(byte op) {
+            if (opCount == ops.length) {
+                ops = Arrays.copyOf(ops, opCount * 2);
+            }
+            ops[opCount++] = op;
+        }
+
+        private Builder put(float x, float y) {
+            if (coordCount + 2 > coords.length) {
+                coords = Arrays.copyOf(coords, coords.length * 2);
+            }
+            coords[coordCount++] = x;
+            coords[coordCount++] = y;
+            return this;
+        }
+    }
+}
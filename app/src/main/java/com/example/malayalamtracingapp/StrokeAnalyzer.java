@@ -0,0 +1,257 @@
+package com.example.malayalamtracingapp;
+
+/**
+ * Measures one stroke attempt against its template as the touch samples arrive.
+ *
+ * Each sample updates a fixed set of running sums (length, speed, a smoothed velocity
+ * and acceleration for jerk, pause and reversal runs, deviation), so no sample history
+ * is kept and addSample() does not allocate. The nearest template segment is searched
+ * in a small window around the previous one, and the whole table is only searched when
+ * the finger has wandered off. One {@link StrokeAttempt} is built when the stroke ends.
+ *
+ * Thresholds are in view pixels and converted to the template's units in begin(), so a
+ * pause or a reversal means the same on screen in a classroom lane as in the
+ * single-glyph view.
+ */
+class StrokeAnalyzer {
+
+    // Template segments searched either side of the previous nearest one
+    private static final int SEARCH_WINDOW = 24;
+    // Beyond this deviation (view pixels) the windowed search may have lost track
+    private static final float FULL_SEARCH_DEVIATION = 40f;
+
+    // Slower than this, in view pixels per second, counts as hesitating
+    private static final float PAUSE_SPEED = 30f;
+    private static final long PAUSE_MIN_MILLIS = 200;
+
+    // Moving more than 120 degrees away from the template direction is going backwards
+    private static final float REVERSE_COSINE = -0.5f;
+    // Backwards runs shorter than this (view pixels) are jitter, not an error
+    private static final float REVERSE_MIN_LENGTH = 12f;
+
+    // Exponential smoothing of the velocity before differentiating it twice
+    private static final float VELOCITY_SMOOTHING = 0.5f;
+
+    private StrokeArcTable template;
+    private float unitScale;
+    private boolean active;
+
+    // The pixel thresholds in template units, for the current stroke
+    private float fullSearchDeviationSq;
+    private float pauseSpeed;
+    private float reverseMinLength;
+
+    private long startTime;
+    private long lastTime;
+    private float lastX, lastY;
+    private float length;
+    private float peakSpeed;
+
+    private float velocityX, velocityY;
+    private float accelerationX, accelerationY;
+    private int derivativeSamples;
+    private double jerkIntegral;
+
+    private long pauseStart;
+    private int pauseCount;
+    private long pauseMillis;
+
+    private int nearestSegment;
+    private double deviationIntegral;
+    private float firstDeviation;
+    private float maxDeviation;
+
+    private float reverseRun;
+    private float reversedLength;
+    private boolean reversing;
+    private int directionErrors;
+
+    /**
+     * Starts measuring a stroke.
+     *
+     * @param template  Arc table of the template stroke, in the same coordinates as the samples.
+     * @param unitScale View pixels per template unit, used to convert the thresholds and report in pixels.
+     */
+    void begin(StrokeArcTable template, float unitScale, float x, float y, long timeMillis) {
+        this.template = template;
+        this.unitScale = unitScale;
+        active = template != null && template.getSegmentCount() > 0 && unitScale > 0;
+        if (active) {
+            float fullSearchDeviation = FULL_SEARCH_DEVIATION / unitScale;
+            fullSearchDeviationSq = fullSearchDeviation * fullSearchDeviation;
+            pauseSpeed = PAUSE_SPEED / unitScale;
+            reverseMinLength = REVERSE_MIN_LENGTH / unitScale;
+        }
+
+        startTime = timeMillis;
+        lastTime = timeMillis;
+        lastX = x;
+        lastY = y;
+        length = 0;
+        peakSpeed = 0;
+        velocityX = velocityY = 0;
+        accelerationX = accelerationY = 0;
+        derivativeSamples = 0;
+        jerkIntegral = 0;
+        pauseStart = -1;
+        pauseCount = 0;
+        pauseMillis = 0;
+        deviationIntegral = 0;
+        reverseRun = 0;
+        reversedLength = 0;
+        reversing = false;
+        directionErrors = 0;
+
+        if (active) {
+            nearestSegment = template.nearestSegment(x, y, 0, template.getSegmentCount() - 1);
+            firstDeviation = (float) Math.sqrt(template.segmentDistanceSquared(nearestSegment, x, y));
+            maxDeviation = firstDeviation;
+        }
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    void cancel() {
+        active = false;
+        template = null;
+    }
+
+    void addSample(float x, float y, long timeMillis) {
+        if (!active) {
+            return;
+        }
+        float dx = x - lastX;
+        float dy = y - lastY;
+        float distance = (float) Math.hypot(dx, dy);
+        long elapsed = timeMillis - lastTime;
+        if (distance == 0 && elapsed <= 0) {
+            return;
+        }
+        length += distance;
+
+        trackTemplate(x, y, dx, dy, distance);
+        if (elapsed > 0) {
+            trackMotion(dx, dy, distance, elapsed);
+        }
+
+        lastX = x;
+        lastY = y;
+        if (elapsed > 0) {
+            lastTime = timeMillis;
+        }
+    }
+
+    /**
+     * Ends the stroke and returns its record, or null if no stroke was being measured.
+     */
+    StrokeAttempt finish(String glyph, int lane, int strokeIndex, boolean passed) {
+        if (!active) {
+            return null;
+        }
+        active = false;
+        endPause(lastTime);
+
+        long duration = lastTime - startTime;
+        float seconds = duration / 1000f;
+        float meanSpeed = seconds > 0 ? length / seconds : 0;
+        // Integral of squared jerk scaled by duration^5 / length^2 has no units
+        double jerk = length > 0 && seconds > 0
+                ? jerkIntegral * Math.pow(seconds, 5) / (length * (double) length) : 0;
+        float meanDeviation = length > 0 ? (float) (deviationIntegral / length) : firstDeviation;
+
+        StrokeAttempt attempt = new StrokeAttempt(glyph, lane, strokeIndex, passed,
+                duration, length * unitScale, meanSpeed * unitScale, peakSpeed * unitScale,
+                (float) jerk, pauseCount, pauseMillis,
+                directionErrors, length > 0 ? reversedLength / length : 0,
+                meanDeviation * unitScale, maxDeviation * unitScale);
+        template = null;
+        return attempt;
+    }
+
+    /**
+     * Deviation from the nearest template point, and direction against the template's tangent there.
+     */
+    private void trackTemplate(float x, float y, float dx, float dy, float distance) {
+        int nearest = template.nearestSegment(x, y, nearestSegment - SEARCH_WINDOW, nearestSegment + SEARCH_WINDOW);
+        float deviationSq = template.segmentDistanceSquared(nearest, x, y);
+        if (deviationSq > fullSearchDeviationSq) {
+            nearest = template.nearestSegment(x, y, 0, template.getSegmentCount() - 1);
+            deviationSq = template.segmentDistanceSquared(nearest, x, y);
+        }
+        nearestSegment = nearest;
+        float deviation = (float) Math.sqrt(deviationSq);
+        deviationIntegral += deviation * distance;
+        maxDeviation = Math.max(maxDeviation, deviation);
+
+        if (distance <= 0) {
+            return;
+        }
+        float[] segments = template.getSegments();
+        int base = nearest * 4;
+        float tangentX = segments[base + 2] - segments[base];
+        float tangentY = segments[base + 3] - segments[base + 1];
+        float tangentLength = (float) Math.hypot(tangentX, tangentY);
+        if (tangentLength <= 0) {
+            return;
+        }
+        float cosine = (dx * tangentX + dy * tangentY) / (distance * tangentLength);
+        if (cosine < REVERSE_COSINE) {
+            reversedLength += distance;
+            reverseRun += distance;
+            if (!reversing && reverseRun >= reverseMinLength) {
+                reversing = true;
+                directionErrors++;
+            }
+        } else if (cosine > 0) {
+            reverseRun = 0;
+            reversing = false;
+        }
+    }
+
+    /**
+     * Speed, hesitation pauses and jerk from the interval since the previous sample.
+     */
+    private void trackMotion(float dx, float dy, float distance, long elapsedMillis) {
+        float dt = elapsedMillis / 1000f;
+        float speed = distance / dt;
+        peakSpeed = Math.max(peakSpeed, speed);
+
+        if (speed < pauseSpeed) {
+            if (pauseStart < 0) {
+                pauseStart = lastTime;
+            }
+        } else {
+            endPause(lastTime);
+        }
+
+        float newVelocityX = velocityX + VELOCITY_SMOOTHING * (dx / dt - velocityX);
+        float newVelocityY = velocityY + VELOCITY_SMOOTHING * (dy / dt - velocityY);
+        float newAccelerationX = (newVelocityX - velocityX) / dt;
+        float newAccelerationY = (newVelocityY - velocityY) / dt;
+        // Jerk needs two earlier velocity estimates to be meaningful
+        if (derivativeSamples >= 2) {
+            float jerkX = (newAccelerationX - accelerationX) / dt;
+            float jerkY = (newAccelerationY - accelerationY) / dt;
+            jerkIntegral += (jerkX * jerkX + jerkY * jerkY) * dt;
+        }
+        velocityX = newVelocityX;
+        velocityY = newVelocityY;
+        accelerationX = newAccelerationX;
+        accelerationY = newAccelerationY;
+        derivativeSamples++;
+    }
+
+    private void endPause(long endTime) {
+        if (pauseStart < 0) {
+            return;
+        }
+        long duration = endTime - pauseStart;
+        if (duration >= PAUSE_MIN_MILLIS) {
+            pauseCount++;
+            pauseMillis += duration;
+        }
+        pauseStart = -1;
+    }
+}
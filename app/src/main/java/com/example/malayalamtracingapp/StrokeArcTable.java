@@ -0,0 +1,192 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+
+import java.util.Arrays;
+
+/**
+ * A template stroke flattened into short line segments with their cumulative arc length.
+ *
+ * Built once when the template is scaled. Finding the point at a given distance along
+ * the stroke is then a search over a float array, and the traced-so-far prefix can be
+ * drawn straight from {@link #getSegments()} with Canvas.drawLines.
+ */
+class StrokeArcTable {
+
+    static final float DEFAULT_STEP = 3f;
+
+    // x0, y0, x1, y1 per segment
+    private final float[] segments;
+    // Arc length at the end of each segment
+    private final float[] cumulativeLengths;
+    private final int segmentCount;
+    private final float totalLength;
+
+    StrokeArcTable(Path path) {
+        this(path, DEFAULT_STEP);
+    }
+
+    /**
+     * A table whose segments join consecutive points of a polyline given as x0, y0, x1, y1, ...
+     */
+    static StrokeArcTable fromPolyline(float... points) {
+        int count = Math.max(0, points.length / 2 - 1);
+        float[] segments = new float[count * 4];
+        float[] cumulativeLengths = new float[count];
+        float total = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(points, i * 2, segments, i * 4, 4);
+            total += (float) Math.hypot(points[i * 2 + 2] - points[i * 2], points[i * 2 + 3] - points[i * 2 + 1]);
+            cumulativeLengths[i] = total;
+        }
+        return new StrokeArcTable(segments, cumulativeLengths, count, total);
+    }
+
+    private StrokeArcTable(float[] segments, float[] cumulativeLengths, int segmentCount, float totalLength) {
+        this.segments = segments;
+        this.cumulativeLengths = cumulativeLengths;
+        this.segmentCount = segmentCount;
+        this.totalLength = totalLength;
+    }
+
+    StrokeArcTable(Path path, float step) {
+        // First pass sizes the arrays exactly, second pass fills them
+        PathMeasure measure = new PathMeasure(path, false);
+        int count = 0;
+        do {
+            float length = measure.getLength();
+            if (length > 0) {
+                count += (int) Math.ceil(length / step);
+            }
+        } while (measure.nextContour());
+
+        segments = new float[count * 4];
+        cumulativeLengths = new float[count];
+
+        measure.setPath(path, false);
+        float[] position = new float[2];
+        int index = 0;
+        float total = 0;
+        do {
+            float length = measure.getLength();
+            if (length <= 0) {
+                continue;
+            }
+            int contourSegments = (int) Math.ceil(length / step);
+            measure.getPosTan(0, position, null);
+            float prevX = position[0];
+            float prevY = position[1];
+            for (int i = 1; i <= contourSegments; i++) {
+                float distance = Math.min(i * step, length);
+                measure.getPosTan(distance, position, null);
+                segments[index * 4] = prevX;
+                segments[index * 4 + 1] = prevY;
+                segments[index * 4 + 2] = position[0];
+                segments[index * 4 + 3] = position[1];
+                total += (float) Math.hypot(position[0] - prevX, position[1] - prevY);
+                cumulativeLengths[index] = total;
+                prevX = position[0];
+                prevY = position[1];
+                index++;
+            }
+        } while (measure.nextContour());
+
+        segmentCount = index;
+        totalLength = total;
+    }
+
+    float getTotalLength() {
+        return totalLength;
+    }
+
+    int getSegmentCount() {
+        return segmentCount;
+    }
+
+    float[] getSegments() {
+        return segments;
+    }
+
+    /**
+     * Number of whole segments that end at or before the given distance.
+     */
+    int segmentsBefore(float distance) {
+        if (segmentCount == 0 || distance <= 0) {
+            return 0;
+        }
+        int found = Arrays.binarySearch(cumulativeLengths, 0, segmentCount, distance);
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+
+    /**
+     * Squared distance from (x, y) to the nearest point on the flattened stroke.
+     */
+    float distanceSquaredTo(float x, float y) {
+        float nearest = Float.MAX_VALUE;
+        for (int i = 0; i < segmentCount; i++) {
+            nearest = Math.min(nearest, segmentDistanceSquared(i, x, y));
+        }
+        return nearest;
+    }
+
+    /**
+     * Index of the segment nearest to (x, y), searching only segments from..to (inclusive,
+     * clamped to the table). Returns -1 for an empty table.
+     */
+    int nearestSegment(float x, float y, int from, int to) {
+        int first = Math.max(0, from);
+        int last = Math.min(segmentCount - 1, to);
+        int nearest = -1;
+        float nearestDistanceSq = Float.MAX_VALUE;
+        for (int i = first; i <= last; i++) {
+            float distanceSq = segmentDistanceSquared(i, x, y);
+            if (distanceSq < nearestDistanceSq) {
+                nearestDistanceSq = distanceSq;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Squared distance from (x, y) to one segment.
+     */
+    float segmentDistanceSquared(int index, float x, float y) {
+        int base = index * 4;
+        float x0 = segments[base];
+        float y0 = segments[base + 1];
+        float dx = segments[base + 2] - x0;
+        float dy = segments[base + 3] - y0;
+        float lengthSq = dx * dx + dy * dy;
+        float t = lengthSq > 0 ? ((x - x0) * dx + (y - y0) * dy) / lengthSq : 0f;
+        t = Math.max(0f, Math.min(1f, t));
+        float ex = x0 + dx * t - x;
+        float ey = y0 + dy * t - y;
+        return ex * ex + ey * ey;
+    }
+
+    /**
+     * Writes the point at the given arc length into out[0], out[1].
+     */
+    void pointAt(float distance, float[] out) {
+        if (segmentCount == 0) {
+            out[0] = 0;
+            out[1] = 0;
+            return;
+        }
+        int index = segmentsBefore(distance);
+        if (index >= segmentCount) {
+            out[0] = segments[(segmentCount - 1) * 4 + 2];
+            out[1] = segments[(segmentCount - 1) * 4 + 3];
+            return;
+        }
+        float segmentStart = index == 0 ? 0 : cumulativeLengths[index - 1];
+        float segmentLength = cumulativeLengths[index] - segmentStart;
+        float t = segmentLength > 0 ? (distance - segmentStart) / segmentLength : 0f;
+        t = Math.max(0f, Math.min(1f, t));
+        int base = index * 4;
+        out[0] = segments[base] + (segments[base + 2] - segments[base]) * t;
+        out[1] = segments[base + 1] + (segments[base + 3] - segments[base + 1]) * t;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.malayalamtracingapp;
+
+import java.util.Locale;
+
+/**
+ * Quality metrics for one attempt at one template stroke, produced by {@link StrokeAnalyzer}.
+ * Lengths and speeds are in view pixels at the scale the stroke was traced.
+ */
+final class StrokeAttempt {
+
+    final String glyph;
+    // Classroom lane the attempt came from, or -1 outside classroom mode
+    final int lane;
+    final int strokeIndex;
+    final boolean passed;
+
+    final long durationMillis;
+    final float lengthPx;
+    final float meanSpeed;
+    final float peakSpeed;
+    // Dimensionless squared jerk; lower is smoother, and it does not depend on size or speed
+    final float dimensionlessJerk;
+    final int pauseCount;
+    final long pauseMillis;
+    final int directionErrors;
+    // Fraction of the traced length that ran against the template's direction
+    final float reversedFraction;
+    final float meanDeviationPx;
+    final float maxDeviationPx;
+
+    StrokeAttempt(String glyph, int lane, int strokeIndex, boolean passed,
+                  long durationMillis, float lengthPx, float meanSpeed, float peakSpeed,
+                  float dimensionlessJerk, int pauseCount, long pauseMillis,
+                  int directionErrors, float reversedFraction,
+                  float meanDeviationPx, float maxDeviationPx) {
+        this.glyph = glyph;
+        this.lane = lane;
+        this.strokeIndex = strokeIndex;
+        this.passed = passed;
+        this.durationMillis = durationMillis;
+        this.lengthPx = lengthPx;
+        this.meanSpeed = meanSpeed;
+        this.peakSpeed = peakSpeed;
+        this.dimensionlessJerk = dimensionlessJerk;
+        this.pauseCount = pauseCount;
+        this.pauseMillis = pauseMillis;
+        this.directionErrors = directionErrors;
+        this.reversedFraction = reversedFraction;
+        this.meanDeviationPx = meanDeviationPx;
+        this.maxDeviationPx = maxDeviationPx;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s#%d%s %s %dms %.0fpx speed %.0f/%.0fpx/s jerk %.3g pauses %d (%dms) reversals %d (%.0f%%) deviation %.1f/%.1fpx",
+                glyph, strokeIndex + 1, lane >= 0 ? " lane " + (lane + 1) : "", passed ? "pass" : "fail",
+                durationMillis, lengthPx, meanSpeed, peakSpeed, dimensionlessJerk, pauseCount, pauseMillis,
+                directionErrors, reversedFraction * 100, meanDeviationPx, maxDeviationPx);
+    }
+}
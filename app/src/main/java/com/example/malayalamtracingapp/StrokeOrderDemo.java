@@ -0,0 +1,156 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.view.Choreographer;
+import android.view.View;
+
+import java.util.List;
+
+/**
+ * "Show me" playback: a pen tip draws each template stroke in order, leaving ink behind.
+ *
+ * Runs off the precomputed {@link StrokeArcTable}s, so each frame is a search into an
+ * array and a drawLines call over the already-traced prefix. Nothing is allocated
+ * while playing.
+ */
+class StrokeOrderDemo implements Choreographer.FrameCallback {
+
+    // Fraction of the view's shorter side the pen covers per second
+    private static final float SPEED_PER_SECOND = 0.6f;
+    private static final long PAUSE_BETWEEN_STROKES_NANOS = 350_000_000L;
+    private static final long HOLD_AT_END_NANOS = 800_000_000L;
+    private static final float PEN_TIP_RADIUS = 16f;
+
+    private final View view;
+    private final Paint inkPaint = new Paint();
+    private final Paint penTipPaint = new Paint();
+    private final float[] penTip = new float[2];
+
+    private List<StrokeArcTable> tables;
+    private boolean playing;
+    private long startNanos;
+    private float pixelsPerNano;
+
+    // Playback position computed in doFrame and read in draw
+    private int currentStroke;
+    private float currentDistance;
+    private boolean holding;
+
+    StrokeOrderDemo(View view) {
+        this.view = view;
+
+        inkPaint.setColor(Color.parseColor("#7E57C2"));
+        inkPaint.setStyle(Paint.Style.STROKE);
+        inkPaint.setStrokeCap(Paint.Cap.ROUND);
+        inkPaint.setStrokeJoin(Paint.Join.ROUND);
+        inkPaint.setStrokeWidth(18);
+        inkPaint.setAntiAlias(true);
+
+        penTipPaint.setColor(Color.parseColor("#4527A0"));
+        penTipPaint.setStyle(Paint.Style.FILL);
+        penTipPaint.setAntiAlias(true);
+    }
+
+    /**
+     * Plays the strokes from the beginning. The tables must not change while playing.
+     */
+    void play(List<StrokeArcTable> strokeTables) {
+        if (strokeTables == null || strokeTables.isEmpty()) {
+            return;
+        }
+        tables = strokeTables;
+        float side = Math.max(1, Math.min(view.getWidth(), view.getHeight()));
+        pixelsPerNano = side * SPEED_PER_SECOND / 1_000_000_000f;
+        startNanos = System.nanoTime();
+        currentStroke = 0;
+        currentDistance = 0;
+        holding = false;
+
+        if (!playing) {
+            playing = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+        view.invalidate();
+    }
+
+    void stop() {
+        if (playing) {
+            playing = false;
+            tables = null;
+            Choreographer.getInstance().removeFrameCallback(this);
+            view.invalidate();
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!playing) {
+            return;
+        }
+
+        // Walk the timeline: each stroke takes length / speed, followed by a short pause
+        long elapsed = Math.max(0, frameTimeNanos - startNanos);
+        int stroke = 0;
+        float distance = 0;
+        boolean finished = true;
+        for (; stroke < tables.size(); stroke++) {
+            float length = tables.get(stroke).getTotalLength();
+            long drawNanos = (long) (length / pixelsPerNano);
+            if (elapsed < drawNanos) {
+                distance = elapsed * pixelsPerNano;
+                finished = false;
+                break;
+            }
+            elapsed -= drawNanos;
+            if (elapsed < PAUSE_BETWEEN_STROKES_NANOS) {
+                distance = length;
+                finished = false;
+                break;
+            }
+            elapsed -= PAUSE_BETWEEN_STROKES_NANOS;
+        }
+
+        if (finished) {
+            currentStroke = tables.size() - 1;
+            currentDistance = tables.get(currentStroke).getTotalLength();
+            holding = true;
+            if (elapsed >= HOLD_AT_END_NANOS) {
+                stop();
+                return;
+            }
+        } else {
+            currentStroke = stroke;
+            currentDistance = distance;
+        }
+
+        view.postInvalidateOnAnimation();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    void draw(Canvas canvas) {
+        if (!playing) {
+            return;
+        }
+        for (int i = 0; i < currentStroke; i++) {
+            StrokeArcTable table = tables.get(i);
+            canvas.drawLines(table.getSegments(), 0, table.getSegmentCount() * 4, inkPaint);
+        }
+
+        StrokeArcTable table = tables.get(currentStroke);
+        int wholeSegments = table.segmentsBefore(currentDistance);
+        if (wholeSegments > 0) {
+            canvas.drawLines(table.getSegments(), 0, Math.min(wholeSegments, table.getSegmentCount()) * 4, inkPaint);
+        }
+        table.pointAt(currentDistance, penTip);
+        if (wholeSegments < table.getSegmentCount()) {
+            // Partial segment from the last whole one up to the pen tip
+            float[] segments = table.getSegments();
+            canvas.drawLine(segments[wholeSegments * 4], segments[wholeSegments * 4 + 1], penTip[0], penTip[1], inkPaint);
+        }
+        if (!holding) {
+            canvas.drawCircle(penTip[0], penTip[1], PEN_TIP_RADIUS, penTipPaint);
+        }
+    }
+}
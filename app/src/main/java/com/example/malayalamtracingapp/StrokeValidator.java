@@ -0,0 +1,101 @@
+package com.example.malayalamtracingapp;
+
+/**
+ * Decides whether a traced stroke follows its template stroke.
+ *
+ * The traced path is resampled at a fixed arc-length step as its points arrive, and
+ * every resampled point, plus the start and the end, has to lie near the template's
+ * arc table. When the stroke ends it also has to cover nearly all of the template's
+ * length. The single-glyph view and the classroom lanes both validate through this
+ * class, each in its own coordinates, and checking a stroke allocates nothing.
+ */
+class StrokeValidator {
+
+    // Resampling step along the traced path, in view pixels
+    static final float SAMPLE_STEP = 20f;
+
+    private StrokeArcTable template;
+    private float maxDistanceSq;
+    private float step;
+
+    private boolean correct;
+    private float length;
+    // Distance along the path from the last point to the next resampled point
+    private float toNextSample;
+    private float lastX, lastY;
+
+    /**
+     * Starts a stroke at (x, y). Distances are in the template's coordinates.
+     *
+     * @return whether the start point is near the template.
+     */
+    boolean begin(StrokeArcTable template, float maxDistance, float step, float x, float y) {
+        this.template = template;
+        maxDistanceSq = maxDistance * maxDistance;
+        this.step = step;
+        length = 0;
+        toNextSample = step;
+        lastX = x;
+        lastY = y;
+        correct = isNear(x, y);
+        return correct;
+    }
+
+    /**
+     * Extends the traced path to (x, y).
+     *
+     * @return false once any part of the path has strayed from the template.
+     */
+    boolean lineTo(float x, float y) {
+        float dx = x - lastX;
+        float dy = y - lastY;
+        float distance = (float) Math.hypot(dx, dy);
+        if (distance <= 0) {
+            return correct;
+        }
+        float along = toNextSample;
+        while (correct && along <= distance) {
+            float t = along / distance;
+            correct = isNear(lastX + dx * t, lastY + dy * t);
+            along += step;
+        }
+        toNextSample = along - distance;
+        length += distance;
+        lastX = x;
+        lastY = y;
+        return correct;
+    }
+
+    /**
+     * Ends the stroke at (x, y).
+     *
+     * @param completeness Fraction of the template's length the traced path has to cover.
+     * @return true if the whole stroke stayed near the template and was long enough.
+     */
+    boolean finish(float x, float y, float completeness) {
+        lineTo(x, y);
+        // The end point counts even when it falls between resampled points
+        correct = correct && isNear(x, y);
+        if (!correct) {
+            return false;
+        }
+        float templateLength = template.getTotalLength();
+        return templateLength <= 0 || length >= templateLength * completeness;
+    }
+
+    boolean isCorrect() {
+        return correct;
+    }
+
+    /**
+     * Length of the path traced so far, in the template's coordinates.
+     */
+    float getLength() {
+        return length;
+    }
+
+    private boolean isNear(float x, float y) {
+        return template != null && template.getSegmentCount() > 0
+                && template.distanceSquaredTo(x, y) <= maxDistanceSq;
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.malayalamtracingapp;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts the SVG path strings stored in malayalam_alphabets.json into packed path
+ * commands. Only the pack importer runs it; everything else reads the commands back
+ * from the pack.
+ */
+final class SvgPathParser {
+
+    private static final String TAG = "SvgPathParser";
+
+    private SvgPathParser() {
+    }
+
+    /**
+     * Parses SVG path data (M, L, H, V, C, S, Q, T, A and Z, absolute or relative) into
+     * absolute commands. Returns an empty path if the data is missing or malformed.
+     */
+    static PackedPath parse(String svgPathData) {
+        PackedPath.Builder path = new PackedPath.Builder();
+        if (svgPathData == null || svgPathData.trim().isEmpty()) {
+            Log.e(TAG, "parse: Received null or empty SVG path data.");
+            return path.build();
+        }
+
+
+        Pattern tokenPattern = Pattern.compile("([A-Za-z])|([-+]?\\d*\\.?\\d+(?:[eE][-+]?\\d+)?)");
+        Matcher tokenMatcher = tokenPattern.matcher(svgPathData);
+
+        List<String> tokens = new ArrayList<>();
+        while (tokenMatcher.find()) {
+            tokens.add(tokenMatcher.group());
+        }
+        Log.d(TAG, "parse: Tokenized SVG data: " + tokens); // Added logging for tokens
+
+        float currentX = 0, currentY = 0;
+        float lastControlX = 0, lastControlY = 0;
+        String currentCommand = "";
+        int tokenIndex = 0;
+
+        try {
+            while (tokenIndex < tokens.size()) {
+                String token = tokens.get(tokenIndex);
+
+
+                if (token.length() == 1 && Character.isLetter(token.charAt(0))) {
+                    currentCommand = token;
+                    tokenIndex++;
+                    Log.d(TAG, "parse: Identified command: " + currentCommand); // Added logging for commands
+                } else {
+
+                    if (currentCommand.isEmpty()) {
+                        Log.e(TAG, "parse: Found argument '" + token + "' before any command.");
+                        return path.reset().build();
+                    }
+
+                }
+
+
+                switch (currentCommand) {
+                    case "M":
+                    case "m":
+                        float x = Float.parseFloat(tokens.get(tokenIndex++));
+                        float y = Float.parseFloat(tokens.get(tokenIndex++));
+                        if (currentCommand.equals("m")) { // Relative move
+                            currentX += x;
+                            currentY += y;
+                        } else {
+                            currentX = x;
+                            currentY = y;
+                        }
+                        path.moveTo(currentX, currentY);
+                        Log.d(TAG, "parse: " + currentCommand + " " + x + "," + y + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
+
+                        if (currentCommand.equals("M")) currentCommand = "L";
+                        else if (currentCommand.equals("m")) currentCommand = "l";
+                        break;
+
+                    case "L":
+                    case "l":
+                        x = Float.parseFloat(tokens.get(tokenIndex++));
+                        y = Float.parseFloat(tokens.get(tokenIndex++));
+                        if (currentCommand.equals("l")) { // Relative line
+                            currentX += x;
+                            currentY += y;
+                        } else {
+                            currentX = x;
+                            currentY = y;
+                        }
+                        path.lineTo(currentX, currentY);
+                        Log.d(TAG, "parse: " + currentCommand + " " + x + "," + y + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
+                        break;
+
+                    case "H":
+                    case "h":
+                        x = Float.parseFloat(tokens.get(tokenIndex++));
+                        if (currentCommand.equals("h")) { // Relative horizontal
+                            currentX += x;
+                        } else {
+                            currentX = x;
+                        }
+                        path.lineTo(currentX, currentY);
+                        Log.d(TAG, "parse: " + currentCommand + " " + x + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
+                        break;
+
+                    case "V":
+                    case "v":
+                        y = Float.parseFloat(tokens.get(tokenIndex++));
+                        if (currentCommand.equals("v")) { // Relative vertical
+                            currentY += y;
+                        } else {
+                            currentY = y;
+                        }
+                        path.lineTo(currentX, currentY);
+                        Log.d(TAG, "parse: " + currentCommand + " " + y + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
+                        break;
+
+                    case "C":
+                    case "c":
+                        float c1x = Float.parseFloat(tokens.get(tokenIndex++));
+                        float c1y = Float.parseFloat(tokens.get(tokenIndex++));
+                        float c2x = Float.parseFloat(tokens.get(tokenIndex++));
+                        float c2y = Float.parseFloat(tokens.get(tokenIndex++));
+                        x = Float.parseFloat(tokens.get(tokenIndex++));
+                        y = Float.parseFloat(tokens.get(tokenIndex++));
+
+                        if (currentCommand.equals("c")) { // Relative cubic
+                            path.cubicTo(currentX + c1x, currentY + c1y,
+                                    currentX + c2x, currentY + c2y,
+                                    currentX + x, currentY + y);
+                            lastControlX = currentX + c2x;
+                            lastControlY = currentY + c2y;
+                            currentX += x;
+                            currentY += y;
+                        } else {
+                            path.cubicTo(c1x, c1y, c2x, c2y, x, y);
+                            lastControlX = c2x;
+                            lastControlY = c2y;
+                            currentX = x;
+                            currentY = y;
+                        }
+                        Log.d(TAG, "parse: " + currentCommand + " " + c1x + "," + c1y + " " + c2x + "," + c2y + " " + x + "," + y + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
+                        break;
+
+                    case "S":
+                    case "s":
+                        c1x = currentX + (currentX - lastControlX); // Reflect previous control point
+                        c1y = currentY + (currentY - lastControlY); // Reflect previous control point
+
+                        c2x = Float.parseFloat(tokens.get(tokenIndex++));
+                        c2y = Float.parseFloat(tokens.get(tokenIndex++));
+                        x = Float.parseFloat(tokens.get(tokenIndex++));
+                        y = Float.parseFloat(tokens.get(tokenIndex++));
+
+                        if (currentCommand.equals("s")) {
+                            path.cubicTo(c1x, c1y,
+                                    currentX + c2x, currentY + c2y,
+                                    currentX + x, currentY + y);
+                            lastControlX = currentX + c2x;
+                            lastControlY = currentY + c2y;
+                            currentX += x;
+                            currentY += y;
+                        } else {
+                            path.cubicTo(c1x, c1y, c2x, c2y, x, y);
+                            lastControlX = c2x;
+                            lastControlY = c2y;
+                            currentX = x;
+                            currentY = y;
+                        }
+                        Log.d(TAG, "parse: " + currentCommand + " (shorthand) -> current: " + currentX + "," + currentY); // Added logging
+                        break;
+
+                    case "Q":
+                    case "q":
+                        c1x = Float.parseFloat(tokens.get(tokenIndex++));
+                        c1y = Float.parseFloat(tokens.get(tokenIndex++));
+                        x = Float.parseFloat(tokens.get(tokenIndex++));
+                        y = Float.parseFloat(tokens.get(tokenIndex++));
+
+                        if (currentCommand.equals("q")) { // Relative quadratic
+                            path.quadTo(currentX + c1x, currentY + c1y,
+                                    currentX + x, currentY + y);
+                            lastControlX = currentX + c1x;
+                            lastControlY = currentY + c1y;
+                            currentX += x;
+                            currentY += y;
+                        } else {
+                            path.quadTo(c1x, c1y, x, y);
+                            lastControlX = c1x;
+                            lastControlY = c1y;
+                            currentX = x;
+                            currentY = y;
+                        }
+                        Log.d(TAG, "parse: " + currentCommand + " " + c1x + "," + c1y + " " + x + "," + y + " -> current: " + currentX + "," + currentY); // Added logging
+                        break;
+
+                    case "T":
+                    case "t":
+                        c1x = currentX + (currentX - lastControlX); // Reflect previous control point
+                        c1y = currentY + (currentY - lastControlY); // Reflect previous control point
+
+                        x = Float.parseFloat(tokens.get(tokenIndex++));
+                        y = Float.parseFloat(tokens.get(tokenIndex++));
+
+                        if (currentCommand.equals("t")) { // Relative shorthand quadratic
+                            path.quadTo(c1x, c1y,
+                                    currentX + x, currentY + y);
+                            currentX += x;
+                            currentY += y;
+                        } else { // Absolute shorthand quadratic
+                            path.quadTo(c1x, c1y, x, y);
+                            currentX = x;
+                            currentY = y;
+                        }
+                        lastControlX = c1x;
+                        lastControlY = c1y;
+                        Log.d(TAG, "parse: " + currentCommand + " (shorthand) -> current: " + currentX + "," + currentY); // Added logging
+                        break;
+
+                    case "A": // elliptical arc (absolute)
+                    case "a": // elliptical arc (relative)
+
+                        Float.parseFloat(tokens.get(tokenIndex++)); // rx
+                        Float.parseFloat(tokens.get(tokenIndex++)); // ry
+                        Float.parseFloat(tokens.get(tokenIndex++)); // xAxisRotation
+                        Integer.parseInt(tokens.get(tokenIndex++)); // largeArcFlag
+                        Integer.parseInt(tokens.get(tokenIndex++)); // sweepFlag
+                        x = Float.parseFloat(tokens.get(tokenIndex++));
+                        y = Float.parseFloat(tokens.get(tokenIndex++));
+
+                        if (currentCommand.equals("a")) { // Relative arc
+                            currentX += x;
+                            currentY += y;
+                        } else { // Absolute arc
+                            currentX = x;
+                            currentY = y;
+                        }
+                        path.lineTo(currentX, currentY); // Fallback to line for simplicity
+                        Log.d(TAG, "parse: " + currentCommand + " (arc) to " + currentX + "," + currentY + " (simplified to line)"); // Added logging
+                        break;
+
+                    case "Z": // closepath
+                    case "z": // closepath
+                        path.close();
+                        Log.d(TAG, "parse: Z (close path)"); // Added logging
+                        break;
+
+                    default:
+                        Log.e(TAG, "parse: Unknown or unhandled SVG path command: '" + currentCommand + "'");
+                        return path.reset().build();
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            Log.e(TAG, "parse: Missing argument for command '" + currentCommand + "' at token index " + tokenIndex + ". Error: " + e.getMessage());
+            Log.e(TAG, "parse: Full error trace: ", e);
+            path.reset(); // Clear path if arguments are missing
+        } catch (NumberFormatException e) {
+            Log.e(TAG, "parse: Invalid number format for argument of command '" + currentCommand + "' at token index " + (tokenIndex > 0 ? tokenIndex - 1 : 0) + ". Token: '" + (tokenIndex > 0 && tokenIndex <= tokens.size() ? tokens.get(tokenIndex - 1) : "N/A") + "'. Error: " + e.getMessage());
+            Log.e(TAG, "parse: Full error trace: ", e);
+            path.reset(); // Clear path if number format is invalid
+        } catch (Exception e) {
+            Log.e(TAG, "parse: General error during parsing. " + e.getMessage());
+            Log.e(TAG, "parse: Full error trace: ", e);
+            path.reset(); // Clear path for any other unexpected errors
+        } finally {
+            Log.d(TAG, "parse: Finished parsing. Commands: " + path.getOpCount());
+        }
+        return path.build();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The inactive template strokes rasterized for the current zoom, so a pinch does not
+ * re-draw dashed paths at every intermediate scale.
+ *
+ * While the transform is changing, the last layer is drawn scaled to match, which is
+ * cheap but soft. Once it settles, render() rasterizes copies of the strokes into an
+ * alpha-only bitmap on a background thread, and the sharp result is swapped in on the
+ * main thread. The strokes are only drawn, never parsed or measured again.
+ *
+ * A layer only covers the viewport it was rendered for; after panning, the caller
+ * draws whatever lies outside {@link #getCoveredRect(RectF)} from the paths.
+ */
+class TemplateLayer {
+
+    private static final String TAG = "TemplateLayer";
+
+    private final View view;
+    // One render thread at most, which exits when idle
+    private final ThreadPoolExecutor renderer = new ThreadPoolExecutor(0, 1, 5, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    // Bitmap on screen and the transform and content it was rendered for; main thread only
+    private Bitmap front;
+    private final Matrix frontMatrix = new Matrix();
+    private int frontVersion = -1;
+    private final Matrix pendingMatrix = new Matrix();
+    private int pendingVersion = -1;
+    private int contentVersion;
+    private volatile int latestRequest;
+    private final Matrix drawMatrix = new Matrix();
+
+    // The front replaced by the last swap; the frame drawn before the swap may still use it
+    private Bitmap retired;
+    private boolean retiredReleasable;
+
+    // A bitmap no longer on screen, reused by the next render
+    private final Object spareLock = new Object();
+    private Bitmap spare;
+
+    TemplateLayer(View view) {
+        this.view = view;
+    }
+
+    /**
+     * Marks the layer out of date because the strokes or the skipped stroke changed.
+     * Until a new layer is ready, draw() returns false and the caller draws the strokes itself.
+     */
+    void invalidateContent() {
+        contentVersion++;
+    }
+
+    /**
+     * True unless a layer for this transform and content is already on screen or being rendered.
+     */
+    boolean needsRender(Matrix viewMatrix) {
+        if (frontVersion == contentVersion && frontMatrix.equals(viewMatrix)) {
+            return false;
+        }
+        return pendingVersion != contentVersion || !pendingMatrix.equals(viewMatrix);
+    }
+
+    /**
+     * Rasterizes every stroke except skipIndex through viewMatrix into a width x height
+     * layer. The paths are copied, so the caller may keep using its own.
+     */
+    void render(List<Path> strokes, int skipIndex, Paint paint, Matrix viewMatrix, final int width, final int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        final List<Path> copies = new ArrayList<>(strokes.size());
+        for (int i = 0; i < strokes.size(); i++) {
+            if (i != skipIndex) {
+                copies.add(new Path(strokes.get(i)));
+            }
+        }
+        final Paint renderPaint = new Paint(paint);
+        final Matrix matrix = new Matrix(viewMatrix);
+        final int version = contentVersion;
+        final int request = ++latestRequest;
+        pendingMatrix.set(viewMatrix);
+        pendingVersion = version;
+
+        renderer.execute(new Runnable() {
+            @Override
+            public void run() {
+                // A newer request supersedes this one before any work is done
+                if (request != latestRequest) {
+                    return;
+                }
+                final Bitmap target = takeSpare(width, height);
+                Canvas canvas = new Canvas(target);
+                canvas.concat(matrix);
+                for (Path path : copies) {
+                    canvas.drawPath(path, renderPaint);
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        swap(target, matrix, version, renderPaint.getColor());
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Draws the layer mapped from the transform it was rendered with to viewMatrix.
+     *
+     * @return false if there is no layer for the current content.
+     */
+    boolean draw(Canvas canvas, Matrix viewMatrix) {
+        // The first frame after a swap stops drawing the retired bitmap; by the next one
+        // that frame has been handed to the renderer, so the bitmap can be reused
+        if (retired != null) {
+            if (retiredReleasable) {
+                returnSpare(retired);
+                retired = null;
+            } else {
+                retiredReleasable = true;
+            }
+        }
+        if (front == null || frontVersion != contentVersion) {
+            return false;
+        }
+        if (!frontMatrix.invert(drawMatrix)) {
+            return false;
+        }
+        drawMatrix.postConcat(viewMatrix);
+        canvas.drawBitmap(front, drawMatrix, bitmapPaint);
+        return true;
+    }
+
+    /**
+     * The area the current layer was rendered for, in the untransformed coordinates of the strokes.
+     */
+    void getCoveredRect(RectF out) {
+        if (front == null || !frontMatrix.invert(drawMatrix)) {
+            out.setEmpty();
+            return;
+        }
+        out.set(0, 0, front.getWidth(), front.getHeight());
+        drawMatrix.mapRect(out);
+    }
+
+    /**
+     * Drops the layer bitmaps; they are recreated by the next render.
+     */
+    void release() {
+        latestRequest++;
+        front = null;
+        retired = null;
+        frontVersion = -1;
+        pendingVersion = -1;
+        synchronized (spareLock) {
+            spare = null;
+        }
+    }
+
+    private void swap(Bitmap rendered, Matrix matrix, int version, int color) {
+        if (version != contentVersion) {
+            Log.d(TAG, "swap: Dropping layer rendered for stale content.");
+            returnSpare(rendered);
+            return;
+        }
+        // A previous retiree that was never released just goes to the garbage collector
+        retired = front;
+        retiredReleasable = false;
+        front = rendered;
+        frontMatrix.set(matrix);
+        frontVersion = version;
+        bitmapPaint.setColor(color);
+        view.invalidate();
+    }
+
+    private Bitmap takeSpare(int width, int height) {
+        Bitmap bitmap;
+        synchronized (spareLock) {
+            bitmap = spare;
+            spare = null;
+        }
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        return bitmap;
+    }
+
+    private void returnSpare(Bitmap bitmap) {
+        if (bitmap == null) {
+            return;
+        }
+        synchronized (spareLock) {
+            if (spare == null) {
+                spare = bitmap;
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One learner's strip of the view in classroom mode: a glyph, the stroke being traced
+ * and its ink.
+ *
+ * The glyph's strokes and arc tables come from the shared {@link GlyphTemplateCache}.
+ * Touches are mapped into the template's own coordinates and validated against its
+ * arc tables as they arrive by a {@link StrokeValidator}, the same check the
+ * single-glyph view uses, so the down/move/up path does not allocate. A
+ * {@link StrokeAnalyzer} measures each attempt along the way.
+ */
+class TracingLane {
+
+    static final int RESULT_NONE = 0;
+    static final int RESULT_WRONG = 1;
+    static final int RESULT_STROKE_DONE = 2;
+    static final int RESULT_GLYPH_DONE = 3;
+
+    private static final float FILL_FRACTION = 0.8f;
+    // View pixels, like the single-glyph thresholds in TracingView
+    private static final float NEAR_DISTANCE = 50f;
+    private static final float TOUCH_TOLERANCE = 4f;
+    private static final float COMPLETENESS_THRESHOLD = 0.98f;
+    private static final long FLASH_NANOS = 400_000_000L;
+    private static final int FLASH_ALPHA = 60;
+
+    private final int laneIndex;
+    private final Paint templatePaint;
+    private final Paint highlightPaint;
+    private final Paint inkPaint;
+    private final int finishedInkColor;
+    private final Paint flashPaint = new Paint();
+
+    private final RectF bounds = new RectF();
+    private final RectF glyphBounds = new RectF();
+    private final Matrix toView = new Matrix();
+    private final Matrix toTemplate = new Matrix();
+    private float scale;
+    // Validation distances converted to template units
+    private float nearDistance;
+    private float sampleStep;
+    // The template's strokes placed in this lane, for drawing only
+    private final List<Path> viewStrokes = new ArrayList<>();
+
+    private GlyphTemplateCache.GlyphTemplate template;
+    private int currentStroke;
+
+    // Stroke in progress, in template coordinates
+    private int pointerId = -1;
+    private boolean isCorrect;
+    private float lastX, lastY;
+    private final float[] point = new float[2];
+    private final StrokeValidator validator = new StrokeValidator();
+    private final InkMesh ink;
+    private final StrokeAnalyzer analyzer = new StrokeAnalyzer();
+    private StrokeAttempt lastAttempt;
+
+    private int flashColor;
+    private long flashStartNanos;
+
+    TracingLane(int laneIndex, Paint templatePaint, Paint highlightPaint, Paint inkPaint, float inkWidth, int finishedInkColor) {
+        this.laneIndex = laneIndex;
+        this.templatePaint = templatePaint;
+        this.highlightPaint = highlightPaint;
+        this.inkPaint = inkPaint;
+        this.finishedInkColor = finishedInkColor;
+        ink = new InkMesh(inkWidth);
+        flashPaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * Starts the lane over on a new glyph.
+     */
+    void setGlyph(GlyphTemplateCache.GlyphTemplate template) {
+        this.template = template;
+        reset();
+        placeTemplate();
+    }
+
+    GlyphTemplateCache.GlyphTemplate getGlyph() {
+        return template;
+    }
+
+    void layout(float left, float top, float right, float bottom) {
+        bounds.set(left, top, right, bottom);
+        placeTemplate();
+    }
+
+    RectF getBounds() {
+        return bounds;
+    }
+
+    void reset() {
+        ink.clear();
+        analyzer.cancel();
+        lastAttempt = null;
+        currentStroke = 0;
+        pointerId = -1;
+        isCorrect = true;
+        flashStartNanos = 0;
+    }
+
+    boolean hasPointer() {
+        return pointerId >= 0;
+    }
+
+    /**
+     * Starts a stroke for the given pointer.
+     *
+     * @return false if the lane has nothing left to trace.
+     */
+    boolean down(int pointerId, float x, float y, float pressure, long eventTimeMillis) {
+        if (template == null || currentStroke >= template.tables.size() || scale <= 0) {
+            return false;
+        }
+        this.pointerId = pointerId;
+        toTemplatePoint(x, y);
+        lastX = point[0];
+        lastY = point[1];
+        StrokeArcTable table = template.tables.get(currentStroke);
+        analyzer.begin(table, scale, point[0], point[1], eventTimeMillis);
+        isCorrect = validator.begin(table, nearDistance, sampleStep, point[0], point[1]);
+        ink.beginStroke(isCorrect ? Color.GREEN : Color.RED);
+        ink.addPoint(x, y, pressure, eventTimeMillis);
+        return true;
+    }
+
+    void move(float x, float y, float pressure, long eventTimeMillis) {
+        if (pointerId < 0) {
+            return;
+        }
+        toTemplatePoint(x, y);
+        analyzer.addSample(point[0], point[1], eventTimeMillis);
+        float distance = (float) Math.hypot(point[0] - lastX, point[1] - lastY);
+        if (distance * scale < TOUCH_TOLERANCE) {
+            return;
+        }
+        lastX = point[0];
+        lastY = point[1];
+        ink.addPoint(x, y, pressure, eventTimeMillis);
+
+        if (isCorrect && !validator.lineTo(point[0], point[1])) {
+            isCorrect = false;
+            ink.setStrokeColor(Color.RED);
+        }
+    }
+
+    /**
+     * Finishes the stroke and validates it: the whole path near the template stroke, and
+     * nearly all of its length covered.
+     */
+    int up(float x, float y, float pressure, long eventTimeMillis, long nowNanos) {
+        if (pointerId < 0) {
+            return RESULT_NONE;
+        }
+        move(x, y, pressure, eventTimeMillis);
+        pointerId = -1;
+
+        // move() left the release point, in template coordinates, in point
+        boolean passed = validator.finish(point[0], point[1], COMPLETENESS_THRESHOLD);
+        lastAttempt = analyzer.finish(template.name, laneIndex, currentStroke, passed);
+        if (passed) {
+            ink.setStrokeColor(finishedInkColor);
+            ink.endStroke();
+            currentStroke++;
+            flash(Color.GREEN, nowNanos);
+            return currentStroke >= template.tables.size() ? RESULT_GLYPH_DONE : RESULT_STROKE_DONE;
+        }
+        ink.cancelStroke();
+        isCorrect = true;
+        flash(Color.RED, nowNanos);
+        return RESULT_WRONG;
+    }
+
+    void cancel() {
+        if (pointerId >= 0) {
+            ink.cancelStroke();
+            analyzer.cancel();
+            pointerId = -1;
+            isCorrect = true;
+        }
+    }
+
+    /**
+     * The record of the stroke most recently finished by up(), or null; cleared once taken.
+     */
+    StrokeAttempt takeAttempt() {
+        StrokeAttempt attempt = lastAttempt;
+        lastAttempt = null;
+        return attempt;
+    }
+
+    /**
+     * @return true while the lane's feedback flash still needs frames.
+     */
+    boolean draw(Canvas canvas, long nowNanos) {
+        canvas.save();
+        canvas.clipRect(bounds);
+        for (int i = 0; i < viewStrokes.size(); i++) {
+            canvas.drawPath(viewStrokes.get(i), i == currentStroke ? highlightPaint : templatePaint);
+        }
+        ink.draw(canvas, inkPaint);
+
+        boolean flashing = false;
+        if (flashStartNanos != 0) {
+            float progress = (nowNanos - flashStartNanos) / (float) FLASH_NANOS;
+            if (progress < 1f) {
+                flashPaint.setColor(flashColor);
+                flashPaint.setAlpha((int) (FLASH_ALPHA * (1f - Math.max(0f, progress))));
+                canvas.drawRect(bounds, flashPaint);
+                flashing = true;
+            } else {
+                flashStartNanos = 0;
+            }
+        }
+        canvas.restore();
+        return flashing;
+    }
+
+    private void flash(int color, long nowNanos) {
+        flashColor = color;
+        flashStartNanos = nowNanos;
+    }
+
+    private void toTemplatePoint(float x, float y) {
+        point[0] = x;
+        point[1] = y;
+        toTemplate.mapPoints(point);
+    }
+
+    /**
+     * Fits the template into the lane and derives the view-to-template mapping.
+     */
+    private void placeTemplate() {
+        viewStrokes.clear();
+        scale = 0;
+        if (template == null || bounds.isEmpty()) {
+            return;
+        }
+        RectF glyph = glyphBounds;
+        template.getBounds(glyph);
+        if (glyph.width() <= 0 || glyph.height() <= 0) {
+            return;
+        }
+        scale = Math.min(bounds.width() * FILL_FRACTION / glyph.width(), bounds.height() * FILL_FRACTION / glyph.height());
+        toView.reset();
+        toView.postTranslate(-glyph.centerX(), -glyph.centerY());
+        toView.postScale(scale, scale);
+        toView.postTranslate(bounds.centerX(), bounds.centerY());
+        toView.invert(toTemplate);
+
+        nearDistance = NEAR_DISTANCE / scale;
+        sampleStep = StrokeValidator.SAMPLE_STEP / scale;
+
+        for (Path stroke : template.strokes) {
+            Path placed = new Path();
+            stroke.transform(toView, placed);
+            viewStrokes.add(placed);
+        }
+    }
+}
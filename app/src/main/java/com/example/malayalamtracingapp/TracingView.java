@@ -1,5 +1,8 @@
 package com.example.malayalamtracingapp;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
@@ -7,18 +10,16 @@ import android.graphics.DashPathEffect;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.PathMeasure;
 import android.graphics.RectF;
+import android.os.Build;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
-import android.widget.Toast;
 import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 public class TracingView extends View {
@@ -27,14 +28,18 @@ public class TracingView extends View {
     private Paint templatePaint;
     private Paint highlightPaint;
     private Paint tracePaint;
-    private Paint feedbackPaint;
-    private Paint debugPaint;
+    private Paint completedGlyphPaint;
+    private Paint inkPaint;
+    private Paint predictionPaint;
+    private Paint hudPaint;
+    private Paint hudBackgroundPaint;
 
 
-    private Path currentTracePath;
-    private List<Path> completedTracePaths;
+    private InkMesh inkMesh;
     private List<Path> originalTemplateStrokes;
     private List<Path> scaledTemplateStrokes;
+    // Arc-length tables for scaledTemplateStrokes, rebuilt whenever they are
+    private List<StrokeArcTable> strokeArcTables;
 
     private int currentStrokeIndex = 0;
 
@@ -42,8 +47,18 @@ public class TracingView extends View {
     private float lastX, lastY;
     private static final float TOUCH_TOLERANCE = 4;
 
+    // Speculative ink ahead of the finger; drawn only, never validated
+    private MotionPredictor motionPredictor;
+    private final float[] predictedPoint = new float[2];
+    private boolean hasPrediction;
+    // Newest touch sample, where the predicted segment starts
+    private float predictionAnchorX, predictionAnchorY;
+    private static final int PREDICTION_ALPHA = 110;
+
 
     private boolean isTracingCorrect = true;
+    // Same check the classroom lanes use, in view pixels here
+    private final StrokeValidator strokeValidator = new StrokeValidator();
 
     private static final float FEEDBACK_DISTANCE_THRESHOLD = 50;
     private static final float COMPLETENESS_THRESHOLD = 0.98f;
@@ -51,6 +66,53 @@ public class TracingView extends View {
 
     private int viewWidth, viewHeight;
 
+    // Word mode: several glyphs on a horizontally scrollable strip, traced one at a time
+    private WordComposition wordComposition;
+    private int activeGlyphIndex;
+    private float wordScrollX;
+    private ValueAnimator scrollAnimator;
+    private static final long SCROLL_ANIMATION_MILLIS = 350;
+
+    // Pinch zoom and pan, applied on top of the glyph layout; touches are mapped back
+    // through it so validation always works in glyph coordinates
+    private float zoomScale = 1f;
+    private float zoomPanX, zoomPanY;
+    private final Matrix viewMatrix = new Matrix();
+    private TemplateLayer templateLayer;
+    private final RectF layerRect = new RectF();
+    private final RectF visibleRect = new RectF();
+    private static final float MIN_ZOOM = 1f;
+    private static final float MAX_ZOOM = 4f;
+
+    // Two-finger gesture state: pinch zooms, dragging pans (and scrolls a word)
+    private boolean isPanning;
+    private float panLastX, panLastY, panLastSpan;
+
+    // Classroom mode: independent lanes side by side, one learner and one finger each
+    private TracingLane[] lanes;
+    private GlyphTemplateCache laneTemplates;
+    // Templates kept beyond the ones the lanes are showing, for lanes on the same glyphs
+    private static final int SPARE_LANE_TEMPLATES = 2;
+    // Lane that owns each pointer ID, or -1
+    private final int[] pointerLanes = new int[MAX_POINTER_ID + 1];
+    private Paint laneDividerPaint;
+    private static final int MAX_POINTER_ID = 31;
+
+    // Per-stroke quality metrics, measured while tracing and reported to the analytics
+    private StrokeAnalyzer strokeAnalyzer;
+    private HandwritingAnalytics handwritingAnalytics;
+
+    // Success, error and completion feedback drawn on this canvas
+    private FeedbackAnimator feedbackAnimator;
+    private StrokeOrderDemo strokeOrderDemo;
+
+    // Optional frame telemetry and its on-canvas overlay
+    private FrameMetricsCollector frameMetricsCollector;
+    private boolean metricsHudEnabled;
+    private final StringBuilder hudText = new StringBuilder(64);
+    private final FrameMetricsCollector.HudSnapshot hudStats = new FrameMetricsCollector.HudSnapshot();
+    private static final float HUD_TEXT_SIZE = 30f;
+
     public TracingView(Context context, AttributeSet attrs) {
         super(context, attrs);
         init();
@@ -99,24 +161,50 @@ public class TracingView extends View {
         tracePaint.setAntiAlias(true);
 
 
-        feedbackPaint = new Paint();
-        feedbackPaint.setStyle(Paint.Style.STROKE);
-        feedbackPaint.setStrokeJoin(Paint.Join.ROUND);
-        feedbackPaint.setStrokeCap(Paint.Cap.ROUND);
-        feedbackPaint.setStrokeWidth(25);
-        feedbackPaint.setAntiAlias(true);
+        completedGlyphPaint = new Paint(tracePaint);
+        completedGlyphPaint.setAlpha(160);
+
+
+        // Ink colours come from the mesh vertices; this paint only carries the draw state.
+        inkPaint = new Paint();
+        inkPaint.setColor(Color.WHITE);
+
 
+        predictionPaint = new Paint();
+        predictionPaint.setStyle(Paint.Style.STROKE);
+        predictionPaint.setStrokeCap(Paint.Cap.ROUND);
+        predictionPaint.setStrokeWidth(tracePaint.getStrokeWidth() * 0.6f);
+        predictionPaint.setAntiAlias(true);
 
-        debugPaint = new Paint();
-        debugPaint.setColor(Color.RED);
-        debugPaint.setStyle(Paint.Style.STROKE);
-        debugPaint.setStrokeWidth(5);
 
+        hudPaint = new Paint();
+        hudPaint.setColor(Color.WHITE);
+        hudPaint.setTextSize(HUD_TEXT_SIZE);
+        hudPaint.setAntiAlias(true);
 
-        currentTracePath = new Path();
-        completedTracePaths = new ArrayList<>();
+        hudBackgroundPaint = new Paint();
+        hudBackgroundPaint.setColor(Color.argb(170, 0, 0, 0));
+
+
+        laneDividerPaint = new Paint();
+        laneDividerPaint.setColor(Color.GRAY);
+        laneDividerPaint.setStrokeWidth(4);
+
+
+        inkMesh = new InkMesh(tracePaint.getStrokeWidth());
+        motionPredictor = new MotionPredictor();
+        strokeAnalyzer = new StrokeAnalyzer();
+        feedbackAnimator = new FeedbackAnimator(this);
+        strokeOrderDemo = new StrokeOrderDemo(this);
+        templateLayer = new TemplateLayer(this);
         originalTemplateStrokes = new ArrayList<>();
         scaledTemplateStrokes = new ArrayList<>();
+        strokeArcTables = new ArrayList<>();
+
+        // drawVertices is only hardware accelerated from Android 10
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            setLayerType(LAYER_TYPE_SOFTWARE, null);
+        }
     }
 
     @Override
@@ -126,20 +214,29 @@ public class TracingView extends View {
         viewHeight = h;
         Log.d(TAG, "onSizeChanged: View dimensions - Width: " + viewWidth + ", Height: " + viewHeight);
 
-        if (!originalTemplateStrokes.isEmpty()) {
+        resetZoom();
+        if (lanes != null) {
+            layoutLanes();
+        } else if (wordComposition != null) {
+            wordComposition.layout(viewWidth, viewHeight);
+            activateGlyph(activeGlyphIndex, false);
+        } else if (!originalTemplateStrokes.isEmpty()) {
             scalePathsToView();
         }
     }
 
 
-    public void setSvgPaths(List<String> svgPathDataList) {
+    public void setStrokes(List<PackedPath> strokes) {
+        lanes = null;
+        wordComposition = null;
+        wordScrollX = 0;
+        resetZoom();
         originalTemplateStrokes.clear();
-        for (String svgPathData : svgPathDataList) {
-            Path path = parseSvgPath(svgPathData);
-            if (!path.isEmpty()) {
-                originalTemplateStrokes.add(path);
+        for (PackedPath stroke : strokes) {
+            if (!stroke.isEmpty()) {
+                originalTemplateStrokes.add(stroke.toPath());
             } else {
-                Log.w(TAG, "setSvgPaths: Skipping empty or invalid path from SVG data: " + svgPathData);
+                Log.w(TAG, "setStrokes: Skipping empty stroke.");
             }
         }
 
@@ -151,7 +248,427 @@ public class TracingView extends View {
     }
 
 
+    /**
+     * Switches to word mode: the glyphs are laid out left to right and traced in order.
+     *
+     * @param repository   Where the glyphs' bounds and strokes are read from.
+     * @param glyphIndices Repository index of each glyph in the word, in reading order.
+     */
+    public void setWord(GlyphRepository repository, int[] glyphIndices) {
+        lanes = null;
+        originalTemplateStrokes.clear();
+        wordComposition = new WordComposition(repository, glyphIndices);
+        activeGlyphIndex = 0;
+        resetZoom();
+        if (viewWidth > 0 && viewHeight > 0) {
+            wordComposition.layout(viewWidth, viewHeight);
+        }
+        resetTracing();
+        invalidate();
+    }
+
+    public boolean isWordMode() {
+        return wordComposition != null;
+    }
+
+    /**
+     * Switches to classroom mode: the view is split into one lane per glyph, side by side,
+     * and each lane is traced independently by its own finger. A lane moves on to the
+     * next glyph in the repository when its glyph is finished.
+     *
+     * @param repository   Where the glyphs are read from.
+     * @param glyphIndices Repository index of the starting glyph for each lane.
+     */
+    public void setClassroom(GlyphRepository repository, int[] glyphIndices) {
+        wordComposition = null;
+        wordScrollX = 0;
+        resetZoom();
+        originalTemplateStrokes.clear();
+        scaledTemplateStrokes.clear();
+        strokeArcTables.clear();
+        if (laneTemplates == null || laneTemplates.getRepository() != repository) {
+            laneTemplates = new GlyphTemplateCache(repository, glyphIndices.length + SPARE_LANE_TEMPLATES);
+        } else {
+            laneTemplates.setCapacity(glyphIndices.length + SPARE_LANE_TEMPLATES);
+        }
+
+        lanes = new TracingLane[glyphIndices.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new TracingLane(i, templatePaint, highlightPaint, inkPaint, tracePaint.getStrokeWidth(), tracePaint.getColor());
+            lanes[i].setGlyph(laneTemplates.get(glyphIndices[i]));
+        }
+        if (viewWidth > 0 && viewHeight > 0) {
+            layoutLanes();
+        }
+        resetTracing();
+        invalidate();
+    }
+
+    public boolean isClassroomMode() {
+        return lanes != null;
+    }
+
+    private void layoutLanes() {
+        float laneWidth = viewWidth / (float) lanes.length;
+        for (int i = 0; i < lanes.length; i++) {
+            // Ink is in view coordinates, so it does not survive a relayout
+            lanes[i].reset();
+            lanes[i].layout(i * laneWidth, 0, (i + 1) * laneWidth, viewHeight);
+        }
+    }
+
+    private int laneAt(float x, float y) {
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i].getBounds().contains(x, y)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int laneForPointer(int pointerId) {
+        return pointerId >= 0 && pointerId < pointerLanes.length ? pointerLanes[pointerId] : -1;
+    }
+
+    /**
+     * Routes each pointer to the lane it went down in. Every lane takes one pointer at a
+     * time; extra fingers in a busy lane are ignored. Nothing here allocates.
+     */
+    private boolean handleClassroomTouch(MotionEvent event) {
+        if (frameMetricsCollector != null) {
+            frameMetricsCollector.onInputEvent(event.getEventTime() * 1_000_000L);
+        }
+        long validationStart = System.nanoTime();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                int index = event.getActionIndex();
+                int pointerId = event.getPointerId(index);
+                int lane = laneAt(event.getX(index), event.getY(index));
+                if (lane >= 0 && pointerId < pointerLanes.length && !lanes[lane].hasPointer()
+                        && lanes[lane].down(pointerId, event.getX(index), event.getY(index),
+                        event.getPressure(index), event.getEventTime())) {
+                    pointerLanes[pointerId] = lane;
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_MOVE:
+                for (int i = 0; i < event.getPointerCount(); i++) {
+                    int lane = laneForPointer(event.getPointerId(i));
+                    if (lane < 0) {
+                        continue;
+                    }
+                    for (int h = 0; h < event.getHistorySize(); h++) {
+                        lanes[lane].move(event.getHistoricalX(i, h), event.getHistoricalY(i, h),
+                                event.getHistoricalPressure(i, h), event.getHistoricalEventTime(h));
+                    }
+                    lanes[lane].move(event.getX(i), event.getY(i), event.getPressure(i), event.getEventTime());
+                }
+                break;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_POINTER_UP: {
+                int index = event.getActionIndex();
+                int pointerId = event.getPointerId(index);
+                int lane = laneForPointer(pointerId);
+                if (lane >= 0) {
+                    pointerLanes[pointerId] = -1;
+                    int result = lanes[lane].up(event.getX(index), event.getY(index),
+                            event.getPressure(index), event.getEventTime(), System.nanoTime());
+                    StrokeAttempt attempt = lanes[lane].takeAttempt();
+                    if (attempt != null && handwritingAnalytics != null) {
+                        handwritingAnalytics.record(attempt);
+                    }
+                    if (result == TracingLane.RESULT_GLYPH_DONE) {
+                        onLaneGlyphDone(lane);
+                    }
+                }
+                break;
+            }
+
+            case MotionEvent.ACTION_CANCEL:
+                for (TracingLane lane : lanes) {
+                    lane.cancel();
+                }
+                Arrays.fill(pointerLanes, -1);
+                break;
+        }
+        recordValidationTime(validationStart);
+        invalidate();
+        return true;
+    }
+
+    private void onLaneGlyphDone(int lane) {
+        TracingLane tracingLane = lanes[lane];
+        RectF bounds = tracingLane.getBounds();
+        feedbackAnimator.celebrate(bounds.centerX(), bounds.centerY());
+        feedbackAnimator.showMessage("Lane " + (lane + 1) + ": " + tracingLane.getGlyph().name + " done!");
+
+        int next = (tracingLane.getGlyph().glyphIndex + 1) % laneTemplates.getRepository().getGlyphCount();
+        tracingLane.setGlyph(laneTemplates.get(next));
+    }
+
+    private void drawClassroom(Canvas canvas) {
+        long now = System.nanoTime();
+        boolean flashing = false;
+        for (TracingLane lane : lanes) {
+            flashing |= lane.draw(canvas, now);
+        }
+        for (int i = 1; i < lanes.length; i++) {
+            float x = lanes[i].getBounds().left;
+            canvas.drawLine(x, 0, x, viewHeight, laneDividerPaint);
+        }
+        if (flashing) {
+            postInvalidateOnAnimation();
+        }
+    }
+
+    /**
+     * Makes a glyph of the word the one being traced and scrolls it into the middle of the view.
+     */
+    private void activateGlyph(int index, boolean animateScroll) {
+        strokeOrderDemo.stop();
+        templateLayer.invalidateContent();
+        scaledTemplateStrokes.clear();
+        strokeArcTables.clear();
+        if (wordComposition == null || index >= wordComposition.getGlyphCount() || viewWidth == 0) {
+            return;
+        }
+        activeGlyphIndex = index;
+        scaledTemplateStrokes.addAll(wordComposition.getStrokes(index));
+        strokeArcTables.addAll(wordComposition.getArcTables(index));
+        Log.d(TAG, "activateGlyph: Tracing glyph " + index + " (" + wordComposition.getGlyphName(index) + ") of word.");
+
+        float target = clampWordScroll(wordComposition.getGlyphCenterX(index) - viewportCenterOffset());
+        if (scrollAnimator != null) {
+            scrollAnimator.cancel();
+        }
+        // Everything the scroll will pass over is loaded now, not while drawing it
+        loadWordGlyphs(wordScrollX, target);
+        if (animateScroll) {
+            scrollAnimator = ValueAnimator.ofFloat(wordScrollX, target);
+            scrollAnimator.setDuration(SCROLL_ANIMATION_MILLIS);
+            scrollAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    wordScrollX = (float) animation.getAnimatedValue();
+                    invalidate();
+                }
+            });
+            scrollAnimator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    // Redraw once settled so a zoomed template layer is rendered for the new scroll
+                    invalidate();
+                }
+            });
+            scrollAnimator.start();
+        } else {
+            wordScrollX = target;
+        }
+    }
+
+    /**
+     * Loads the word glyphs visible anywhere between two scroll positions, plus a
+     * neighbour either side, and drops the rest.
+     */
+    private void loadWordGlyphs(float fromScrollX, float toScrollX) {
+        float left = (0 - zoomPanX) / zoomScale + Math.min(fromScrollX, toScrollX);
+        float right = (viewWidth - zoomPanX) / zoomScale + Math.max(fromScrollX, toScrollX);
+        wordComposition.loadRange(wordComposition.firstVisible(left), wordComposition.lastVisible(right), activeGlyphIndex);
+    }
+
+    private float clampWordScroll(float scrollX) {
+        float centerOffset = viewportCenterOffset();
+        if (wordComposition.getTotalWidth() * zoomScale <= viewWidth) {
+            // Short words stay centred
+            return wordComposition.getTotalWidth() / 2f - centerOffset;
+        }
+        int last = wordComposition.getGlyphCount() - 1;
+        float min = wordComposition.getGlyphCenterX(0) - centerOffset;
+        float max = wordComposition.getGlyphCenterX(last) - centerOffset;
+        return Math.max(min, Math.min(max, scrollX));
+    }
+
+    /**
+     * Distance in glyph coordinates from the scroll position to the middle of the view.
+     */
+    private float viewportCenterOffset() {
+        return (viewWidth / 2f - zoomPanX) / zoomScale;
+    }
+
+    private float toGlyphX(float screenX) {
+        return (screenX - zoomPanX) / zoomScale + wordScrollX;
+    }
+
+    private float toGlyphY(float screenY) {
+        return (screenY - zoomPanY) / zoomScale;
+    }
+
+    private void updateViewMatrix() {
+        viewMatrix.reset();
+        viewMatrix.postTranslate(-wordScrollX, 0);
+        viewMatrix.postScale(zoomScale, zoomScale);
+        viewMatrix.postTranslate(zoomPanX, zoomPanY);
+    }
+
+    private void resetZoom() {
+        zoomScale = 1f;
+        zoomPanX = 0;
+        zoomPanY = 0;
+    }
+
+    /**
+     * Draws the loaded glyphs of the word that intersect the viewport, other than the
+     * active one. Loading happens when the scroll changes, never here.
+     */
+    private void drawVisibleWordGlyphs(Canvas canvas) {
+        int first = wordComposition.firstVisible(toGlyphX(0));
+        int last = wordComposition.lastVisible(toGlyphX(viewWidth));
+        for (int i = first; i <= last; i++) {
+            List<Path> strokes = wordComposition.getLoadedStrokes(i);
+            if (i == activeGlyphIndex || strokes == null) {
+                continue;
+            }
+            Paint paint = i < activeGlyphIndex ? completedGlyphPaint : templatePaint;
+            for (int s = 0; s < strokes.size(); s++) {
+                canvas.drawPath(strokes.get(s), paint);
+            }
+        }
+    }
+
+    /**
+     * Two-finger gestures pinch-zoom and pan the view; in word mode, horizontal movement
+     * beyond the zoomed area scrolls the word. Returns true while the gesture consumes the event.
+     */
+    private boolean handleZoomPan(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                isPanning = false;
+                if (scrollAnimator != null) {
+                    scrollAnimator.cancel();
+                }
+                return false;
+
+            case MotionEvent.ACTION_POINTER_DOWN:
+                if (!isPanning) {
+                    // A second finger turns the gesture into a pan; drop the stroke in progress
+                    isPanning = true;
+                    inkMesh.cancelStroke();
+                    strokeAnalyzer.cancel();
+                    hasPrediction = false;
+                    isTracingCorrect = true;
+                }
+                startZoomPan(event, -1);
+                return true;
+
+            case MotionEvent.ACTION_MOVE:
+                if (isPanning) {
+                    float focusX = averagePointerX(event, -1);
+                    float focusY = averagePointerY(event, -1);
+                    float span = pointerSpan(event, -1, focusX, focusY);
+                    float factor = panLastSpan > 0 && span > 0 ? span / panLastSpan : 1f;
+                    applyZoomPan(focusX, focusY, factor);
+                    panLastX = focusX;
+                    panLastY = focusY;
+                    panLastSpan = span;
+                    invalidate();
+                    return true;
+                }
+                return false;
+
+            case MotionEvent.ACTION_POINTER_UP:
+                if (isPanning) {
+                    startZoomPan(event, event.getActionIndex());
+                    return true;
+                }
+                return false;
+
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (isPanning) {
+                    isPanning = false;
+                    if (wordComposition != null) {
+                        loadWordGlyphs(wordScrollX, wordScrollX);
+                    }
+                    // Redraw once settled so a template layer is rendered for the final zoom
+                    invalidate();
+                    return true;
+                }
+                return false;
+        }
+        return false;
+    }
+
+    private void startZoomPan(MotionEvent event, int skipIndex) {
+        panLastX = averagePointerX(event, skipIndex);
+        panLastY = averagePointerY(event, skipIndex);
+        panLastSpan = pointerSpan(event, skipIndex, panLastX, panLastY);
+    }
+
+    /**
+     * Scales about the gesture focus so the glyph point under the fingers stays under them.
+     */
+    private void applyZoomPan(float focusX, float focusY, float factor) {
+        float newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoomScale * factor));
+        float ratio = newZoom / zoomScale;
+        float panX = focusX - (panLastX - zoomPanX) * ratio;
+        float panY = focusY - (panLastY - zoomPanY) * ratio;
+        zoomScale = newZoom;
+
+        // Keep the zoomed content covering the view
+        zoomPanX = Math.max(viewWidth * (1f - newZoom), Math.min(0, panX));
+        zoomPanY = Math.max(viewHeight * (1f - newZoom), Math.min(0, panY));
+        if (wordComposition != null) {
+            // Glyphs scrolled into view are loaded when the gesture ends, not mid-pan
+            wordScrollX = clampWordScroll(wordScrollX - (panX - zoomPanX) / newZoom);
+        }
+    }
+
+    private static float averagePointerX(MotionEvent event, int skipIndex) {
+        float sum = 0;
+        int count = 0;
+        for (int i = 0; i < event.getPointerCount(); i++) {
+            if (i != skipIndex) {
+                sum += event.getX(i);
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : 0;
+    }
+
+    private static float averagePointerY(MotionEvent event, int skipIndex) {
+        float sum = 0;
+        int count = 0;
+        for (int i = 0; i < event.getPointerCount(); i++) {
+            if (i != skipIndex) {
+                sum += event.getY(i);
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : 0;
+    }
+
+    /**
+     * Mean distance of the pointers from the focus point, or 0 with fewer than two pointers.
+     */
+    private static float pointerSpan(MotionEvent event, int skipIndex, float focusX, float focusY) {
+        float sum = 0;
+        int count = 0;
+        for (int i = 0; i < event.getPointerCount(); i++) {
+            if (i != skipIndex) {
+                sum += (float) Math.hypot(event.getX(i) - focusX, event.getY(i) - focusY);
+                count++;
+            }
+        }
+        return count > 1 ? sum / count : 0;
+    }
+
     private void scalePathsToView() {
+        strokeOrderDemo.stop();
+        templateLayer.invalidateContent();
+        strokeArcTables.clear();
         if (originalTemplateStrokes.isEmpty() || viewWidth == 0 || viewHeight == 0) {
             Log.w(TAG, "scalePathsToView: Original template strokes are empty or view dimensions are zero. Cannot scale.");
             scaledTemplateStrokes.clear();
@@ -196,7 +713,7 @@ public class TracingView extends View {
                 ", Width: " + pathWidth + ", Height: " + pathHeight);
 
         if (pathWidth == 0 || pathHeight == 0) {
-            Log.e(TAG, "scalePathsToView: Combined path width or height is zero, cannot scale. This might indicate an issue with SVG parsing or empty paths.");
+            Log.e(TAG, "scalePathsToView: Combined path width or height is zero, cannot scale. This might indicate empty paths.");
             scaledTemplateStrokes.clear();
             return;
         }
@@ -225,6 +742,7 @@ public class TracingView extends View {
             Path scaledPath = new Path();
             originalPath.transform(matrix, scaledPath);
             scaledTemplateStrokes.add(scaledPath);
+            strokeArcTables.add(new StrokeArcTable(scaledPath));
         }
 
         RectF finalScaledBounds = new RectF();
@@ -244,10 +762,25 @@ public class TracingView extends View {
 
 
     public void resetTracing() {
-        currentTracePath.reset();
-        completedTracePaths.clear();
+        inkMesh.clear();
+        motionPredictor.reset();
+        hasPrediction = false;
+        feedbackAnimator.cancelAll();
+        strokeOrderDemo.stop();
+        strokeAnalyzer.cancel();
+        templateLayer.invalidateContent();
         currentStrokeIndex = 0;
         isTracingCorrect = true;
+        isPanning = false;
+        if (lanes != null) {
+            for (TracingLane lane : lanes) {
+                lane.reset();
+            }
+            Arrays.fill(pointerLanes, -1);
+        }
+        if (wordComposition != null) {
+            activateGlyph(0, false);
+        }
         invalidate();
     }
 
@@ -255,455 +788,348 @@ public class TracingView extends View {
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
+        // Nothing here logs or allocates: animations redraw this at the display's full rate
+        if (lanes != null) {
+            drawClassroom(canvas);
+            feedbackAnimator.draw(canvas);
+            if (metricsHudEnabled && frameMetricsCollector != null) {
+                drawMetricsHud(canvas);
+            }
+            return;
+        }
+
+
+        // Glyph and ink shift together while an error shake plays
+        updateViewMatrix();
+        canvas.save();
+        canvas.translate(feedbackAnimator.getShakeOffset(), 0);
 
-        canvas.drawRect(0, 0, getWidth(), getHeight(), debugPaint);
-        Log.d(TAG, "onDraw: Debug rectangle drawn. View width: " + getWidth() + ", height: " + getHeight());
+        // When zoomed, inactive template strokes come from a pre-rasterized layer
+        boolean templatesLayered = zoomScale > MIN_ZOOM && templateLayer.draw(canvas, viewMatrix);
+        canvas.concat(viewMatrix);
 
+        if (wordComposition != null) {
+            drawVisibleWordGlyphs(canvas);
+        }
 
         if (!scaledTemplateStrokes.isEmpty()) {
+            if (templatesLayered) {
+                drawTemplatesOutsideLayer(canvas);
+            }
             for (int i = 0; i < scaledTemplateStrokes.size(); i++) {
                 Path templateStroke = scaledTemplateStrokes.get(i);
                 if (i == currentStrokeIndex) {
                     canvas.drawPath(templateStroke, highlightPaint); // Highlight current stroke
-                } else {
+                } else if (!templatesLayered) {
                     canvas.drawPath(templateStroke, templatePaint); // Draw other strokes (completed or not yet active)
                 }
             }
-            Log.d(TAG, "onDraw: Scaled template strokes drawn. Current stroke index: " + currentStrokeIndex);
-        } else {
-            Log.w(TAG, "onDraw: Scaled template strokes list is empty, not drawing template.");
         }
 
 
-        for (Path path : completedTracePaths) {
-            canvas.drawPath(path, tracePaint);
+        strokeOrderDemo.draw(canvas);
+        feedbackAnimator.drawStrokeGlows(canvas);
+
+        // Finished strokes and the live stroke share one mesh
+        inkMesh.draw(canvas, inkPaint);
+
+        if (hasPrediction) {
+            predictionPaint.setColor(isTracingCorrect ? Color.GREEN : Color.RED);
+            predictionPaint.setAlpha(PREDICTION_ALPHA);
+            canvas.drawLine(predictionAnchorX, predictionAnchorY, predictedPoint[0], predictedPoint[1], predictionPaint);
         }
+        canvas.restore();
 
+        feedbackAnimator.draw(canvas);
+
+        if (metricsHudEnabled && frameMetricsCollector != null) {
+            drawMetricsHud(canvas);
+        }
 
-        feedbackPaint.setColor(isTracingCorrect ? Color.GREEN : Color.RED);
-        canvas.drawPath(currentTracePath, feedbackPaint);
+        // Once the zoom has settled, rasterize a sharp layer for it in the background
+        boolean settled = !isPanning && (scrollAnimator == null || !scrollAnimator.isRunning());
+        if (zoomScale > MIN_ZOOM && settled && !scaledTemplateStrokes.isEmpty() && templateLayer.needsRender(viewMatrix)) {
+            templateLayer.render(scaledTemplateStrokes, currentStrokeIndex, templatePaint, viewMatrix, viewWidth, viewHeight);
+        }
+    }
+
+    /**
+     * Draws the inactive template strokes outside the area the template layer was
+     * rendered for, which is uncovered after panning a zoomed view until it re-renders.
+     */
+    private void drawTemplatesOutsideLayer(Canvas canvas) {
+        templateLayer.getCoveredRect(layerRect);
+        visibleRect.set(toGlyphX(0), toGlyphY(0), toGlyphX(viewWidth), toGlyphY(viewHeight));
+        if (layerRect.contains(visibleRect)) {
+            return;
+        }
+        canvas.save();
+        canvas.clipOutRect(layerRect);
+        for (int i = 0; i < scaledTemplateStrokes.size(); i++) {
+            if (i != currentStrokeIndex) {
+                canvas.drawPath(scaledTemplateStrokes.get(i), templatePaint);
+            }
+        }
+        canvas.restore();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        feedbackAnimator.cancelAll();
+        strokeOrderDemo.stop();
+        if (scrollAnimator != null) {
+            scrollAnimator.cancel();
+        }
+        templateLayer.release();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Animates a pen drawing every stroke of the current character in order.
+     * Touching the view stops the demonstration.
+     */
+    public void playStrokeDemo() {
+        if (strokeArcTables.isEmpty()) {
+            Log.w(TAG, "playStrokeDemo: No scaled strokes to demonstrate.");
+            return;
+        }
+        strokeOrderDemo.play(strokeArcTables);
+    }
+
+    /**
+     * Shows a short message banner over the tracing area.
+     */
+    public void showMessage(String message) {
+        feedbackAnimator.showMessage(message);
+    }
+
+    public void setFrameMetricsCollector(FrameMetricsCollector collector) {
+        this.frameMetricsCollector = collector;
+        invalidate();
+    }
+
+    public void setMetricsHudEnabled(boolean enabled) {
+        this.metricsHudEnabled = enabled;
+        invalidate();
+    }
+
+    public boolean isMetricsHudEnabled() {
+        return metricsHudEnabled;
+    }
+
+    public void setHandwritingAnalytics(HandwritingAnalytics analytics) {
+        this.handwritingAnalytics = analytics;
+    }
+
+    /**
+     * Hands the finished attempt at the current stroke to the analytics, if any.
+     */
+    private void recordStrokeAttempt(boolean passed) {
+        String glyph = wordComposition != null ? wordComposition.getGlyphName(activeGlyphIndex)
+                : (handwritingAnalytics != null ? handwritingAnalytics.getCurrentGlyph() : "");
+        StrokeAttempt attempt = strokeAnalyzer.finish(glyph, -1, currentStrokeIndex, passed);
+        if (attempt != null && handwritingAnalytics != null) {
+            handwritingAnalytics.record(attempt);
+        }
+    }
+
+    /**
+     * Draws frame and validation percentiles for the current glyph. Text is built in a
+     * reused StringBuilder so the overlay itself does not allocate per frame.
+     */
+    private void drawMetricsHud(Canvas canvas) {
+        FrameMetricsCollector.HudSnapshot stats = hudStats;
+        frameMetricsCollector.readCurrentStats(stats);
+        float lineHeight = HUD_TEXT_SIZE * 1.25f;
+        float left = 16f;
+        float top = 16f;
+        canvas.drawRect(left, top, left + HUD_TEXT_SIZE * 17f, top + lineHeight * 4 + 12f, hudBackgroundPaint);
+
+        float x = left + 8f;
+        float y = top + lineHeight;
+
+        hudText.setLength(0);
+        hudText.append("frame p50/p95/p99 ");
+        appendMillis(stats.frameP50Millis).append('/');
+        appendMillis(stats.frameP95Millis).append('/');
+        appendMillis(stats.frameP99Millis);
+        canvas.drawText(hudText, 0, hudText.length(), x, y, hudPaint);
+
+        y += lineHeight;
+        hudText.setLength(0);
+        hudText.append("vsync p95 ");
+        appendMillis(stats.vsyncP95Millis).append(" budget ");
+        appendMillis(frameMetricsCollector.getFrameBudgetNanos() / 1_000_000f);
+        canvas.drawText(hudText, 0, hudText.length(), x, y, hudPaint);
+
+        y += lineHeight;
+        hudText.setLength(0);
+        hudText.append("input>frame p95 ");
+        appendMillis(stats.inputToFrameP95Millis).append(" janky ").append(stats.jankyFrames);
+        canvas.drawText(hudText, 0, hudText.length(), x, y, hudPaint);
+
+        y += lineHeight;
+        hudText.setLength(0);
+        hudText.append("validate max ");
+        appendMillis(stats.validationMaxMillis).append(" over ").append(stats.validationsOverBudget);
+        canvas.drawText(hudText, 0, hudText.length(), x, y, hudPaint);
+    }
+
+    private StringBuilder appendMillis(float millis) {
+        int tenths = Math.round(millis * 10f);
+        return hudText.append(tenths / 10).append('.').append(tenths % 10).append("ms");
+    }
+
+    private void recordValidationTime(long startNanos) {
+        if (frameMetricsCollector != null) {
+            frameMetricsCollector.recordValidation(System.nanoTime() - startNanos);
+        }
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        Log.d(TAG, "onTouchEvent: Event received, action: " + event.getAction() + " (0=DOWN, 1=UP, 2=MOVE)"); // Added log for every touch event
+        // Any touch, even one a later branch ignores, takes over from the demo
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            strokeOrderDemo.stop();
+        }
+        if (lanes != null) {
+            return handleClassroomTouch(event);
+        }
+        if (handleZoomPan(event)) {
+            return true;
+        }
         if (scaledTemplateStrokes.isEmpty() || currentStrokeIndex >= scaledTemplateStrokes.size()) {
 
             Log.d(TAG, "onTouchEvent: No character loaded or all strokes completed. Returning false.");
             return false;
         }
 
-        float x = event.getX();
-        float y = event.getY();
+        // Glyph coordinates, undoing the zoom and, in word mode, the scroll
+        float x = toGlyphX(event.getX());
+        float y = toGlyphY(event.getY());
+
+        if (frameMetricsCollector != null) {
+            frameMetricsCollector.onInputEvent(event.getEventTime() * 1_000_000L);
+        }
+        long validationStart;
 
 
         Path currentTemplateStroke = scaledTemplateStrokes.get(currentStrokeIndex);
+        StrokeArcTable currentArcTable = currentStrokeIndex < strokeArcTables.size() ? strokeArcTables.get(currentStrokeIndex) : null;
 
-        switch (event.getAction()) {
+        switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
-
-                currentTracePath.moveTo(x, y);
                 lastX = x;
                 lastY = y;
 
-                isTracingCorrect = isPointNearTemplate(x, y, currentTemplateStroke);
+                validationStart = System.nanoTime();
+                isTracingCorrect = strokeValidator.begin(currentArcTable, FEEDBACK_DISTANCE_THRESHOLD, StrokeValidator.SAMPLE_STEP, x, y);
+                recordValidationTime(validationStart);
+                inkMesh.beginStroke(isTracingCorrect ? Color.GREEN : Color.RED);
+                inkMesh.addPoint(x, y, event.getPressure(), event.getEventTime());
+
+                motionPredictor.reset();
+                motionPredictor.addSample(x, y, event.getEventTime());
+                hasPrediction = false;
+                // Glyph coordinates are view pixels divided by the zoom
+                strokeAnalyzer.begin(currentArcTable, zoomScale, x, y, event.getEventTime());
                 break;
 
             case MotionEvent.ACTION_MOVE:
+                // Batched samples give the predictor a better velocity estimate
+                for (int h = 0; h < event.getHistorySize(); h++) {
+                    float historicalX = toGlyphX(event.getHistoricalX(h));
+                    float historicalY = toGlyphY(event.getHistoricalY(h));
+                    motionPredictor.addSample(historicalX, historicalY, event.getHistoricalEventTime(h));
+                    strokeAnalyzer.addSample(historicalX, historicalY, event.getHistoricalEventTime(h));
+                }
+                motionPredictor.addSample(x, y, event.getEventTime());
+                strokeAnalyzer.addSample(x, y, event.getEventTime());
+
                 float dx = Math.abs(x - lastX);
                 float dy = Math.abs(y - lastY);
                 if (dx >= TOUCH_TOLERANCE || dy >= TOUCH_TOLERANCE) {
-                    currentTracePath.quadTo(lastX, lastY, (x + lastX) / 2, (y + lastY) / 2);
                     lastX = x;
                     lastY = y;
+                    inkMesh.addPoint(x, y, event.getPressure(), event.getEventTime());
 
-                    if (!isPointNearTemplate(x, y, currentTemplateStroke)) {
-                        isTracingCorrect = false;
+                    if (isTracingCorrect) {
+                        validationStart = System.nanoTime();
+                        if (!strokeValidator.lineTo(x, y)) {
+                            isTracingCorrect = false;
+                            inkMesh.setStrokeColor(Color.RED);
+                        }
+                        recordValidationTime(validationStart);
                     }
                 }
+                predictionAnchorX = x;
+                predictionAnchorY = y;
+                hasPrediction = motionPredictor.predict(predictedPoint);
                 break;
 
             case MotionEvent.ACTION_UP:
                 Log.d(TAG, "onTouchEvent: ACTION_UP detected.");
-                currentTracePath.lineTo(x, y);
+                hasPrediction = false;
+                inkMesh.addPoint(x, y, event.getPressure(), event.getEventTime());
 
 
-                boolean strokeOverallCorrect = checkStrokeCorrectness(currentTracePath, currentTemplateStroke);
+                validationStart = System.nanoTime();
+                boolean strokeOverallCorrect = strokeValidator.finish(x, y, COMPLETENESS_THRESHOLD);
+                recordValidationTime(validationStart);
+                strokeAnalyzer.addSample(x, y, event.getEventTime());
+                recordStrokeAttempt(strokeOverallCorrect);
 
                 if (strokeOverallCorrect) {
-                    completedTracePaths.add(new Path(currentTracePath)); // Add a copy of the correct path
+                    inkMesh.setStrokeColor(tracePaint.getColor()); // Keep the correct stroke as finished ink
+                    inkMesh.endStroke();
                     currentStrokeIndex++;
+                    templateLayer.invalidateContent();
+
+                    feedbackAnimator.strokeGlow(currentTemplateStroke);
+                    if (currentStrokeIndex >= scaledTemplateStrokes.size()
+                            && wordComposition != null && activeGlyphIndex < wordComposition.getGlyphCount() - 1) {
 
-                    if (currentStrokeIndex >= scaledTemplateStrokes.size()) {
+                        // Finished glyphs are drawn solid, so their ink can be dropped
+                        inkMesh.clear();
+                        feedbackAnimator.successFlash(event.getX(), event.getY());
+                        feedbackAnimator.showMessage(wordComposition.getGlyphName(activeGlyphIndex) + " done! Now trace "
+                                + wordComposition.getGlyphName(activeGlyphIndex + 1) + ".");
+                        currentStrokeIndex = 0;
+                        activateGlyph(activeGlyphIndex + 1, true);
 
-                        Toast.makeText(getContext(), "Character Complete! Well Done!", Toast.LENGTH_LONG).show();
+                    } else if (currentStrokeIndex >= scaledTemplateStrokes.size()) {
+
+                        strokeOrderDemo.stop();
+                        feedbackAnimator.celebrate(viewWidth / 2f, viewHeight / 2f);
+                        feedbackAnimator.showMessage(wordComposition != null ? "Word Complete! Well Done!" : "Character Complete! Well Done!");
 
                     } else {
 
-                        Toast.makeText(getContext(), "Stroke " + (currentStrokeIndex) + " Correct! Now trace the next part.", Toast.LENGTH_SHORT).show();
+                        feedbackAnimator.successFlash(event.getX(), event.getY());
+                        feedbackAnimator.showMessage("Stroke " + (currentStrokeIndex) + " Correct! Now trace the next part.");
                     }
                 } else {
 
-                    Toast.makeText(getContext(), "Stroke " + (currentStrokeIndex + 1) + " Incorrect! Try again.", Toast.LENGTH_SHORT).show();
+                    inkMesh.cancelStroke();
+                    feedbackAnimator.errorShake();
+                    feedbackAnimator.showMessage("Stroke " + (currentStrokeIndex + 1) + " Incorrect! Try again.");
 
                 }
 
-                currentTracePath.reset();
                 isTracingCorrect = true;
                 break;
-        }
-
-        invalidate();
-        Log.d(TAG, "onTouchEvent: Event processed, returning true."); // Added log for end of onTouchEvent
-        return true;
-    }
-
-
-    private Path parseSvgPath(String svgPathData) {
-        Path path = new Path();
-        if (svgPathData == null || svgPathData.trim().isEmpty()) {
-            Log.e(TAG, "parseSvgPath: Received null or empty SVG path data.");
-            return path;
-        }
-
-
-        Pattern tokenPattern = Pattern.compile("([A-Za-z])|([-+]?\\d*\\.?\\d+(?:[eE][-+]?\\d+)?)");
-        Matcher tokenMatcher = tokenPattern.matcher(svgPathData);
-
-        List<String> tokens = new ArrayList<>();
-        while (tokenMatcher.find()) {
-            tokens.add(tokenMatcher.group());
-        }
-        Log.d(TAG, "parseSvgPath: Tokenized SVG data: " + tokens); // Added logging for tokens
-
-        float currentX = 0, currentY = 0;
-        float lastControlX = 0, lastControlY = 0;
-        String currentCommand = "";
-        int tokenIndex = 0;
-
-        try {
-            while (tokenIndex < tokens.size()) {
-                String token = tokens.get(tokenIndex);
 
-
-                if (token.length() == 1 && Character.isLetter(token.charAt(0))) {
-                    currentCommand = token;
-                    tokenIndex++;
-                    Log.d(TAG, "parseSvgPath: Identified command: " + currentCommand); // Added logging for commands
-                } else {
-
-                    if (currentCommand.isEmpty()) {
-                        Log.e(TAG, "parseSvgPath: Found argument '" + token + "' before any command.");
-                        path.reset();
-                        return path;
-                    }
-
-                }
-
-
-                switch (currentCommand) {
-                    case "M":
-                    case "m":
-                        float x = Float.parseFloat(tokens.get(tokenIndex++));
-                        float y = Float.parseFloat(tokens.get(tokenIndex++));
-                        if (currentCommand.equals("m")) { // Relative move
-                            currentX += x;
-                            currentY += y;
-                        } else {
-                            currentX = x;
-                            currentY = y;
-                        }
-                        path.moveTo(currentX, currentY);
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " " + x + "," + y + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
-
-                        if (currentCommand.equals("M")) currentCommand = "L";
-                        else if (currentCommand.equals("m")) currentCommand = "l";
-                        break;
-
-                    case "L":
-                    case "l":
-                        x = Float.parseFloat(tokens.get(tokenIndex++));
-                        y = Float.parseFloat(tokens.get(tokenIndex++));
-                        if (currentCommand.equals("l")) { // Relative line
-                            currentX += x;
-                            currentY += y;
-                        } else {
-                            currentX = x;
-                            currentY = y;
-                        }
-                        path.lineTo(currentX, currentY);
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " " + x + "," + y + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
-                        break;
-
-                    case "H":
-                    case "h":
-                        x = Float.parseFloat(tokens.get(tokenIndex++));
-                        if (currentCommand.equals("h")) { // Relative horizontal
-                            currentX += x;
-                        } else {
-                            currentX = x;
-                        }
-                        path.lineTo(currentX, currentY);
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " " + x + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
-                        break;
-
-                    case "V":
-                    case "v":
-                        y = Float.parseFloat(tokens.get(tokenIndex++));
-                        if (currentCommand.equals("v")) { // Relative vertical
-                            currentY += y;
-                        } else {
-                            currentY = y;
-                        }
-                        path.lineTo(currentX, currentY);
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " " + y + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
-                        break;
-
-                    case "C":
-                    case "c":
-                        float c1x = Float.parseFloat(tokens.get(tokenIndex++));
-                        float c1y = Float.parseFloat(tokens.get(tokenIndex++));
-                        float c2x = Float.parseFloat(tokens.get(tokenIndex++));
-                        float c2y = Float.parseFloat(tokens.get(tokenIndex++));
-                        x = Float.parseFloat(tokens.get(tokenIndex++));
-                        y = Float.parseFloat(tokens.get(tokenIndex++));
-
-                        if (currentCommand.equals("c")) { // Relative cubic
-                            path.cubicTo(currentX + c1x, currentY + c1y,
-                                    currentX + c2x, currentY + c2y,
-                                    currentX + x, currentY + y);
-                            lastControlX = currentX + c2x;
-                            lastControlY = currentY + c2y;
-                            currentX += x;
-                            currentY += y;
-                        } else {
-                            path.cubicTo(c1x, c1y, c2x, c2y, x, y);
-                            lastControlX = c2x;
-                            lastControlY = c2y;
-                            currentX = x;
-                            currentY = y;
-                        }
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " " + c1x + "," + c1y + " " + c2x + "," + c2y + " " + x + "," + y + " -> current: " + currentX + "," + currentY); // Added logging for coordinates
-                        break;
-
-                    case "S":
-                    case "s":
-                        c1x = currentX + (currentX - lastControlX); // Reflect previous control point
-                        c1y = currentY + (currentY - lastControlY); // Reflect previous control point
-
-                        c2x = Float.parseFloat(tokens.get(tokenIndex++));
-                        c2y = Float.parseFloat(tokens.get(tokenIndex++));
-                        x = Float.parseFloat(tokens.get(tokenIndex++));
-                        y = Float.parseFloat(tokens.get(tokenIndex++));
-
-                        if (currentCommand.equals("s")) {
-                            path.cubicTo(c1x, c1y,
-                                    currentX + c2x, currentY + c2y,
-                                    currentX + x, currentY + y);
-                            lastControlX = currentX + c2x;
-                            lastControlY = currentY + c2y;
-                            currentX += x;
-                            currentY += y;
-                        } else {
-                            path.cubicTo(c1x, c1y, c2x, c2y, x, y);
-                            lastControlX = c2x;
-                            lastControlY = c2y;
-                            currentX = x;
-                            currentY = y;
-                        }
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " (shorthand) -> current: " + currentX + "," + currentY); // Added logging
-                        break;
-
-                    case "Q":
-                    case "q":
-                        c1x = Float.parseFloat(tokens.get(tokenIndex++));
-                        c1y = Float.parseFloat(tokens.get(tokenIndex++));
-                        x = Float.parseFloat(tokens.get(tokenIndex++));
-                        y = Float.parseFloat(tokens.get(tokenIndex++));
-
-                        if (currentCommand.equals("q")) { // Relative quadratic
-                            path.quadTo(currentX + c1x, currentY + c1y,
-                                    currentX + x, currentY + y);
-                            lastControlX = currentX + c1x;
-                            lastControlY = currentY + c1y;
-                            currentX += x;
-                            currentY += y;
-                        } else {
-                            path.quadTo(c1x, c1y, x, y);
-                            lastControlX = c1x;
-                            lastControlY = c1y;
-                            currentX = x;
-                            currentY = y;
-                        }
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " " + c1x + "," + c1y + " " + x + "," + y + " -> current: " + currentX + "," + currentY); // Added logging
-                        break;
-
-                    case "T":
-                    case "t":
-                        c1x = currentX + (currentX - lastControlX); // Reflect previous control point
-                        c1y = currentY + (currentY - lastControlY); // Reflect previous control point
-
-                        x = Float.parseFloat(tokens.get(tokenIndex++));
-                        y = Float.parseFloat(tokens.get(tokenIndex++));
-
-                        if (currentCommand.equals("t")) { // Relative shorthand quadratic
-                            path.quadTo(c1x, c1y,
-                                    currentX + x, currentY + y);
-                            currentX += x;
-                            currentY += y;
-                        } else { // Absolute shorthand quadratic
-                            path.quadTo(c1x, c1y, x, y);
-                            currentX = x;
-                            currentY = y;
-                        }
-                        lastControlX = c1x;
-                        lastControlY = c1y;
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " (shorthand) -> current: " + currentX + "," + currentY); // Added logging
-                        break;
-
-                    case "A": // elliptical arc (absolute)
-                    case "a": // elliptical arc (relative)
-
-                        Float.parseFloat(tokens.get(tokenIndex++)); // rx
-                        Float.parseFloat(tokens.get(tokenIndex++)); // ry
-                        Float.parseFloat(tokens.get(tokenIndex++)); // xAxisRotation
-                        Integer.parseInt(tokens.get(tokenIndex++)); // largeArcFlag
-                        Integer.parseInt(tokens.get(tokenIndex++)); // sweepFlag
-                        x = Float.parseFloat(tokens.get(tokenIndex++));
-                        y = Float.parseFloat(tokens.get(tokenIndex++));
-
-                        if (currentCommand.equals("a")) { // Relative arc
-                            currentX += x;
-                            currentY += y;
-                        } else { // Absolute arc
-                            currentX = x;
-                            currentY = y;
-                        }
-                        path.lineTo(currentX, currentY); // Fallback to line for simplicity
-                        Log.d(TAG, "parseSvgPath: " + currentCommand + " (arc) to " + currentX + "," + currentY + " (simplified to line)"); // Added logging
-                        break;
-
-                    case "Z": // closepath
-                    case "z": // closepath
-                        path.close();
-                        Log.d(TAG, "parseSvgPath: Z (close path)"); // Added logging
-                        break;
-
-                    default:
-                        Log.e(TAG, "parseSvgPath: Unknown or unhandled SVG path command: '" + currentCommand + "'");
-                        path.reset();
-                        return path;
-                }
-            }
-        } catch (IndexOutOfBoundsException e) {
-            Log.e(TAG, "parseSvgPath: Missing argument for command '" + currentCommand + "' at token index " + tokenIndex + ". Error: " + e.getMessage());
-            Log.e(TAG, "parseSvgPath: Full error trace: ", e);
-            path.reset(); // Clear path if arguments are missing
-        } catch (NumberFormatException e) {
-            Log.e(TAG, "parseSvgPath: Invalid number format for argument of command '" + currentCommand + "' at token index " + (tokenIndex > 0 ? tokenIndex - 1 : 0) + ". Token: '" + (tokenIndex > 0 && tokenIndex <= tokens.size() ? tokens.get(tokenIndex - 1) : "N/A") + "'. Error: " + e.getMessage());
-            Log.e(TAG, "parseSvgPath: Full error trace: ", e);
-            path.reset(); // Clear path if number format is invalid
-        } catch (Exception e) {
-            Log.e(TAG, "parseSvgPath: General error during parsing. " + e.getMessage());
-            Log.e(TAG, "parseSvgPath: Full error trace: ", e);
-            path.reset(); // Clear path for any other unexpected errors
-        } finally {
-            Log.d(TAG, "parseSvgPath: Finished parsing. Path isEmpty: " + path.isEmpty());
-            RectF finalBounds = new RectF();
-            path.computeBounds(finalBounds, true);
-            Log.d(TAG, "parseSvgPath: Final path bounds after parsing: " + finalBounds.toShortString());
-        }
-        return path;
-    }
-
-    private boolean isPointNearTemplate(float px, float py, Path templatePath) {
-        if (templatePath == null || templatePath.isEmpty()) {
-            Log.d(TAG, "isPointNearTemplate: Template path is null or empty. Returning false.");
-            return false;
-        }
-
-        PathMeasure pm = new PathMeasure(templatePath, false);
-        float[] coords = new float[2];
-        float minDistanceSq = Float.MAX_VALUE;
-
-        do {
-            float length = pm.getLength();
-            float step = 10f;
-            for (float i = 0; i < length; i += step) {
-                pm.getPosTan(i, coords, null);
-                float dx = px - coords[0];
-                float dy = py - coords[1];
-                float distSq = dx * dx + dy * dy;
-                if (distSq < minDistanceSq) {
-                    minDistanceSq = distSq;
-                }
-            }
-        } while (pm.nextContour());
-
-        boolean isNear = minDistanceSq <= (FEEDBACK_DISTANCE_THRESHOLD * FEEDBACK_DISTANCE_THRESHOLD);
-
-        return isNear;
-    }
-
-
-    private boolean checkStrokeCorrectness(Path userStrokePath, Path templateStrokePath) {
-        Log.d(TAG, "checkStrokeCorrectness: Starting correctness check.");
-        if (userStrokePath == null || userStrokePath.isEmpty() || templateStrokePath == null || templateStrokePath.isEmpty()) {
-            Log.d(TAG, "checkStrokeCorrectness: Input paths are empty or null. Returning false.");
-            return false;
-        }
-
-        PathMeasure userPm = new PathMeasure(userStrokePath, false);
-        float[] userCoords = new float[2];
-        float userLength = userPm.getLength();
-
-        PathMeasure templatePm = new PathMeasure(templateStrokePath, false);
-        float templateLength = templatePm.getLength();
-
-        Log.d(TAG, "checkStrokeCorrectness: User stroke length: " + userLength + ", Template stroke length: " + templateLength);
-
-
-        if (templateLength > 0) {
-            float completenessRatio = userLength / templateLength;
-            Log.d(TAG, "checkStrokeCorrectness: Completeness Ratio: " + completenessRatio + " (Threshold: " + COMPLETENESS_THRESHOLD + ")");
-            if (completenessRatio < COMPLETENESS_THRESHOLD) {
-                Log.d(TAG, "checkStrokeCorrectness: Stroke too short. Completeness: " + (completenessRatio * 100) + "%");
-                return false; // Not enough of the template was traced
-            }
-        } else {
-            Log.w(TAG, "checkStrokeCorrectness: Template stroke length is zero, skipping completeness check.");
-
-        }
-
-
-
-        float sampleStep = 20f;
-
-        if (userLength < sampleStep) {
-
-            userPm.getPosTan(0, userCoords, null);
-            boolean startNear = isPointNearTemplate(userCoords[0], userCoords[1], templateStrokePath);
-
-            userPm.getPosTan(userLength, userCoords, null);
-            boolean endNear = isPointNearTemplate(userCoords[0], userCoords[1], templateStrokePath);
-
-            if (!startNear || !endNear) {
-                Log.d(TAG, "checkStrokeCorrectness: Very short stroke: Start or end point not near template. StartNear: " + startNear + ", EndNear: " + endNear);
-                return false;
-            }
-        } else {
-
-            for (float i = 0; i <= userLength; i += sampleStep) {
-                userPm.getPosTan(i, userCoords, null);
-                if (!isPointNearTemplate(userCoords[0], userCoords[1], templateStrokePath)) {
-                    Log.d(TAG, "checkStrokeCorrectness: Point (" + userCoords[0] + ", " + userCoords[1] + ") is too far from template stroke.");
-                    return false; // Found an incorrect segment
-                }
-            }
+            case MotionEvent.ACTION_CANCEL:
+                // The system took the gesture away; drop the stroke without judging it
+                inkMesh.cancelStroke();
+                hasPrediction = false;
+                motionPredictor.reset();
+                strokeAnalyzer.cancel();
+                isTracingCorrect = true;
+                break;
         }
 
-
-        Log.d(TAG, "checkStrokeCorrectness: Stroke is correct and sufficiently complete. Returning true.");
+        invalidate();
         return true;
     }
 }
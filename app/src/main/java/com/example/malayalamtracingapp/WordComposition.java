@@ -0,0 +1,251 @@
+package com.example.malayalamtracingapp;
+
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lays out several glyph templates left to right as one traceable word.
+ *
+ * Bounds come from the glyph repository's index, so laying out a word decodes no
+ * stroke data; each glyph only keeps its bounds and its advance. The scaled
+ * Paths and arc-length tables that drawing and validation need are built by
+ * loadRange() when the view scrolls, for the glyphs in the viewport, one neighbour
+ * either side and the active glyph only, and dropped once they leave it. Drawing
+ * only reads what is already loaded. Memory and per-frame work therefore depend on
+ * how many glyphs fit on screen, not on the length of the word.
+ */
+class WordComposition {
+
+    private static final String TAG = "WordComposition";
+
+    private static final float HEIGHT_FRACTION = 0.8f;
+    private static final float MAX_GLYPH_WIDTH_FRACTION = 0.8f;
+    // Gap between glyphs, as a fraction of the laid-out word height
+    private static final float LETTER_SPACING = 0.12f;
+
+    private final GlyphRepository repository;
+    private final int[] glyphIndices;
+    // Source bounds per glyph: left, top, right, bottom
+    private final float[] sourceBounds;
+
+    // Layout in word space, valid after layout()
+    private float scale;
+    private float baselineOffsetY;
+    private final float[] originX;
+    private final float[] glyphLeft;
+    private final float[] glyphRight;
+    private float totalWidth;
+
+    // Scaled geometry, only present for glyphs that are visible or active
+    private final List<List<Path>> loadedStrokes;
+    private final List<List<StrokeArcTable>> loadedTables;
+    private int loadedCount;
+
+    /**
+     * @param repository   Where glyph bounds and strokes are read from.
+     * @param glyphIndices Repository index of each glyph in the word, in reading order.
+     */
+    WordComposition(GlyphRepository repository, int[] glyphIndices) {
+        int count = glyphIndices.length;
+        this.repository = repository;
+        this.glyphIndices = glyphIndices.clone();
+        sourceBounds = new float[count * 4];
+        originX = new float[count];
+        glyphLeft = new float[count];
+        glyphRight = new float[count];
+        loadedStrokes = new ArrayList<>(count);
+        loadedTables = new ArrayList<>(count);
+
+        float[] bounds = new float[4];
+        for (int i = 0; i < count; i++) {
+            repository.getBounds(glyphIndices[i], bounds);
+            System.arraycopy(bounds, 0, sourceBounds, i * 4, 4);
+            loadedStrokes.add(null);
+            loadedTables.add(null);
+        }
+    }
+
+    int getGlyphCount() {
+        return glyphIndices.length;
+    }
+
+    String getGlyphName(int index) {
+        return repository.getName(glyphIndices[index]);
+    }
+
+    float getTotalWidth() {
+        return totalWidth;
+    }
+
+    float getGlyphCenterX(int index) {
+        return (glyphLeft[index] + glyphRight[index]) / 2f;
+    }
+
+    /**
+     * Computes a shared scale and baseline for the view height, and advances for every
+     * glyph. Loaded geometry is dropped because it depends on the scale.
+     */
+    void layout(int viewWidth, int viewHeight) {
+        int count = glyphIndices.length;
+        float top = Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        float widest = 0;
+        for (int i = 0; i < count; i++) {
+            top = Math.min(top, sourceBounds[i * 4 + 1]);
+            bottom = Math.max(bottom, sourceBounds[i * 4 + 3]);
+            widest = Math.max(widest, sourceBounds[i * 4 + 2] - sourceBounds[i * 4]);
+        }
+        float sourceHeight = bottom - top;
+        if (count == 0 || sourceHeight <= 0 || widest <= 0) {
+            scale = 0;
+            totalWidth = 0;
+            releaseAll();
+            return;
+        }
+
+        // All glyphs share one scale and vertical offset, so they keep a common baseline
+        scale = Math.min(viewHeight * HEIGHT_FRACTION / sourceHeight, viewWidth * MAX_GLYPH_WIDTH_FRACTION / widest);
+        baselineOffsetY = (viewHeight - sourceHeight * scale) / 2f - top * scale;
+
+        float spacing = sourceHeight * scale * LETTER_SPACING;
+        float cursor = 0;
+        for (int i = 0; i < count; i++) {
+            float left = sourceBounds[i * 4];
+            float width = sourceBounds[i * 4 + 2] - left;
+            originX[i] = cursor - left * scale;
+            glyphLeft[i] = cursor;
+            glyphRight[i] = cursor + width * scale;
+            cursor += width * scale + spacing;
+        }
+        totalWidth = Math.max(0, cursor - spacing);
+        releaseAll();
+    }
+
+    /**
+     * First glyph whose right edge reaches past the given word-space x.
+     */
+    int firstVisible(float fromX) {
+        int low = 0;
+        int high = glyphIndices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (glyphRight[mid] < fromX) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Last glyph whose left edge starts before the given word-space x, or -1.
+     */
+    int lastVisible(float toX) {
+        int low = 0;
+        int high = glyphIndices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (glyphLeft[mid] <= toX) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Scaled strokes of a glyph in word space, built on first use.
+     */
+    List<Path> getStrokes(int index) {
+        List<Path> strokes = loadedStrokes.get(index);
+        if (strokes == null) {
+            load(index);
+            strokes = loadedStrokes.get(index);
+        }
+        return strokes;
+    }
+
+    List<StrokeArcTable> getArcTables(int index) {
+        List<StrokeArcTable> tables = loadedTables.get(index);
+        if (tables == null) {
+            load(index);
+            tables = loadedTables.get(index);
+        }
+        return tables;
+    }
+
+    /**
+     * Scaled strokes of a glyph if they are loaded, or null. Never parses anything.
+     */
+    List<Path> getLoadedStrokes(int index) {
+        return loadedStrokes.get(index);
+    }
+
+    /**
+     * Makes sure glyphs first to last and one neighbour either side are loaded, and drops
+     * the others except the active glyph.
+     */
+    void loadRange(int first, int last, int active) {
+        first = Math.max(0, first - 1);
+        last = Math.min(glyphIndices.length - 1, last + 1);
+        retain(first, last, active);
+        for (int i = first; i <= last; i++) {
+            if (loadedStrokes.get(i) == null) {
+                load(i);
+            }
+        }
+    }
+
+    /**
+     * Drops geometry for glyphs outside [first, last], except the active glyph.
+     */
+    void retain(int first, int last, int active) {
+        if (loadedCount <= last - first + 2) {
+            return;
+        }
+        for (int i = 0; i < glyphIndices.length; i++) {
+            if ((i < first || i > last) && i != active && loadedStrokes.get(i) != null) {
+                loadedStrokes.set(i, null);
+                loadedTables.set(i, null);
+                loadedCount--;
+            }
+        }
+    }
+
+    private void load(int index) {
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postTranslate(originX[index], baselineOffsetY);
+
+        List<PackedPath> source = repository.getStrokes(glyphIndices[index]);
+        List<Path> strokes = new ArrayList<>(source.size());
+        List<StrokeArcTable> tables = new ArrayList<>(source.size());
+        for (PackedPath stroke : source) {
+            if (stroke.isEmpty()) {
+                continue;
+            }
+            Path scaledPath = stroke.toPath();
+            scaledPath.transform(matrix);
+            strokes.add(scaledPath);
+            tables.add(new StrokeArcTable(scaledPath));
+        }
+        loadedStrokes.set(index, strokes);
+        loadedTables.set(index, tables);
+        loadedCount++;
+        Log.d(TAG, "load: Loaded glyph " + index + " (" + getGlyphName(index) + "), " + loadedCount + " glyphs resident.");
+    }
+
+    private void releaseAll() {
+        for (int i = 0; i < glyphIndices.length; i++) {
+            loadedStrokes.set(i, null);
+            loadedTables.set(i, null);
+        }
+        loadedCount = 0;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.malayalamtracingapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays synthetic touch traces through {@link MotionPredictor} and compares its
+ * predictions against where the finger actually was one horizon later.
+ */
+public class MotionPredictorTest {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 8; // 120 Hz touch panel
+
+    /**
+     * Position of a loop like the bowl of "അ": radius 150 px, one revolution in 1.2 s,
+     * speeding up and slowing down as a child's finger does.
+     */
+    private static void loopPosition(double timeMillis, float[] out) {
+        double t = timeMillis / 1200.0;
+        double angle = 2 * Math.PI * (t - 0.08 * Math.sin(2 * Math.PI * t));
+        out[0] = (float) (400 + 150 * Math.cos(angle));
+        out[1] = (float) (400 + 150 * Math.sin(angle));
+    }
+
+    private static double[] replayLoop(MotionPredictor predictor, float noise, long seed) {
+        Random random = new Random(seed);
+        float[] sample = new float[2];
+        float[] actual = new float[2];
+        float[] predicted = new float[2];
+        long horizon = (long) predictor.getHorizonMillis();
+
+        double predictedError = 0;
+        double naiveError = 0;
+        int predictions = 0;
+        for (long time = 0; time <= 1200; time += SAMPLE_INTERVAL_MILLIS) {
+            loopPosition(time, sample);
+            float x = sample[0] + (float) (random.nextGaussian() * noise);
+            float y = sample[1] + (float) (random.nextGaussian() * noise);
+            predictor.addSample(x, y, time);
+
+            if (predictor.predict(predicted)) {
+                loopPosition(time + horizon, actual);
+                predictedError += Math.hypot(predicted[0] - actual[0], predicted[1] - actual[1]);
+                naiveError += Math.hypot(x - actual[0], y - actual[1]);
+                predictions++;
+            }
+        }
+        return new double[]{predictedError / predictions, naiveError / predictions};
+    }
+
+    @Test
+    public void predictionBeatsLastSampleOnSmoothLoop() {
+        double[] errors = replayLoop(new MotionPredictor(), 0f, 1);
+        assertTrue("predicted " + errors[0] + " vs naive " + errors[1], errors[0] < errors[1] * 0.2);
+    }
+
+    @Test
+    public void predictionBeatsLastSampleWithSensorNoise() {
+        double[] errors = replayLoop(new MotionPredictor(), 1.5f, 7);
+        assertTrue("predicted " + errors[0] + " vs naive " + errors[1], errors[0] < errors[1] * 0.6);
+    }
+
+    @Test
+    public void longerHorizonStillTracksLoop() {
+        MotionPredictor predictor = new MotionPredictor(8, 32f, 120f);
+        double[] errors = replayLoop(predictor, 1.5f, 3);
+        assertTrue("predicted " + errors[0] + " vs naive " + errors[1], errors[0] < errors[1] * 0.6);
+    }
+
+    @Test
+    public void straightLineIsExtrapolatedExactly() {
+        MotionPredictor predictor = new MotionPredictor(4, 20f, 1000f);
+        for (int i = 0; i < 4; i++) {
+            predictor.addSample(10 + i * 8, 5, i * 8);
+        }
+        float[] out = new float[2];
+        assertTrue(predictor.predict(out));
+        assertEquals(54f, out[0], 0.01f);
+        assertEquals(5f, out[1], 0.01f);
+    }
+
+    @Test
+    public void extensionIsClampedToMaximum() {
+        MotionPredictor predictor = new MotionPredictor(4, 100f, 30f);
+        for (int i = 0; i < 4; i++) {
+            predictor.addSample(i * 20, 0, i * 8);
+        }
+        float[] out = new float[2];
+        assertTrue(predictor.predict(out));
+        assertEquals(60f + 30f, out[0], 0.01f);
+        assertEquals(0f, out[1], 0.01f);
+    }
+
+    @Test
+    public void needsTwoSamplesAfterReset() {
+        MotionPredictor predictor = new MotionPredictor();
+        float[] out = new float[2];
+        predictor.addSample(0, 0, 0);
+        assertFalse(predictor.predict(out));
+        predictor.addSample(8, 0, 8);
+        assertTrue(predictor.predict(out));
+
+        predictor.reset();
+        predictor.addSample(0, 0, 100);
+        assertFalse(predictor.predict(out));
+    }
+}
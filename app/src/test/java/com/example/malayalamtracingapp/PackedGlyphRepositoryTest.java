@@ -0,0 +1,158 @@
+package com.example.malayalamtracingapp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Writes glyph packs with {@link GlyphPackWriter} and reads them back through
+ * {@link PackedGlyphRepository}, checking that heap use stays flat as the pack grows.
+ */
+public class PackedGlyphRepositoryTest {
+
+    private static final int STROKES_PER_GLYPH = 3;
+    private static final int LINES_PER_STROKE = 96; // ~2.6 KB of path data per glyph
+    // Generous heap cost of one index entry: name, bounds, counts and offsets
+    private static final int INDEX_BYTES_PER_GLYPH = 128;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static PackedPath syntheticStroke(int glyph, int stroke) {
+        PackedPath.Builder path = new PackedPath.Builder().moveTo(glyph % 97, stroke * 10);
+        for (int i = 0; i < LINES_PER_STROKE; i++) {
+            path.lineTo((glyph + i) % 300, (stroke * 31 + i) % 300);
+        }
+        return path.build();
+    }
+
+    private File writePack(String fileName, int glyphCount) throws IOException {
+        File file = folder.newFile(fileName);
+        GlyphPackWriter writer = new GlyphPackWriter(file);
+        try {
+            for (int g = 0; g < glyphCount; g++) {
+                List<PackedPath> strokes = new ArrayList<>();
+                for (int s = 0; s < STROKES_PER_GLYPH; s++) {
+                    strokes.add(syntheticStroke(g, s));
+                }
+                writer.add("glyph" + g, strokes, g, 0, g + 100, 200);
+            }
+            writer.finish();
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    public void roundTripsNamesBoundsAndStrokes() throws IOException {
+        File file = folder.newFile("small.pack");
+        GlyphPackWriter writer = new GlyphPackWriter(file);
+        PackedPath line = new PackedPath.Builder().moveTo(10, 10).lineTo(20, 20).build();
+        PackedPath quad = new PackedPath.Builder().moveTo(30, 30).quadTo(40, 40, 50, 30).close().build();
+        PackedPath cubic = new PackedPath.Builder().moveTo(0, 0).cubicTo(10, 10, 20, 10, 30, 0).build();
+        writer.add("അ", Arrays.asList(line, quad), 10, 10, 50, 40);
+        writer.add("ക", Arrays.asList(cubic), 0, 0, 30, 10);
+        writer.finish();
+        writer.close();
+
+        PackedGlyphRepository repository = new PackedGlyphRepository(file);
+        try {
+            assertEquals(2, repository.getGlyphCount());
+            assertEquals("അ", repository.getName(0));
+            assertEquals(2, repository.getStrokeCount(0));
+            assertEquals(Arrays.asList(cubic), repository.getStrokes(1));
+            PackedPath readQuad = repository.getStrokes(0).get(1);
+            assertEquals(quad, readQuad);
+            assertEquals(3, readQuad.getOpCount());
+            assertEquals(PackedPath.QUAD, readQuad.getOp(1));
+            assertEquals(PackedPath.CLOSE, readQuad.getOp(2));
+            assertEquals(6, readQuad.getCoordCount());
+            assertEquals(50, readQuad.getCoord(4), 0f);
+
+            float[] bounds = new float[4];
+            repository.getBounds(0, bounds);
+            assertArrayEquals(new float[]{10, 10, 50, 40}, bounds, 0f);
+
+            assertEquals(1, repository.indexOf("ക"));
+            assertEquals(-1, repository.indexOf("ഖ"));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    public void cacheStaysWithinBudget() throws IOException {
+        long budget = 16 * 1024;
+        PackedGlyphRepository repository = new PackedGlyphRepository(writePack("budget.pack", 200), budget);
+        try {
+            for (int i = 0; i < repository.getGlyphCount(); i++) {
+                assertEquals(STROKES_PER_GLYPH, repository.getStrokes(i).size());
+                assertTrue("cache over budget after glyph " + i, repository.getCachedBytes() <= budget);
+            }
+            assertTrue(repository.getCachedBytes() > 0);
+
+            // Recently used glyphs are still cached and come back as the same instance
+            List<PackedPath> last = repository.getStrokes(199);
+            assertSame(last, repository.getStrokes(199));
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    public void heapStaysFlatAsPackGrows() throws IOException {
+        int smallCount = 51;
+        int largeCount = 5100;
+        File small = writePack("small.pack", smallCount);
+        File large = writePack("large.pack", largeCount);
+        assertTrue("large pack should hold several MB of stroke data", large.length() > 5 * 1024 * 1024);
+
+        long baseline = usedHeap();
+        PackedGlyphRepository smallRepository = new PackedGlyphRepository(small);
+        for (int i = 0; i < smallRepository.getGlyphCount(); i++) {
+            smallRepository.getStrokes(i);
+        }
+        long smallHeap = usedHeap() - baseline;
+        long smallCached = smallRepository.getCachedBytes();
+        smallRepository.close();
+        smallRepository = null;
+
+        baseline = usedHeap();
+        PackedGlyphRepository largeRepository = new PackedGlyphRepository(large);
+        for (int i = 0; i < largeRepository.getGlyphCount(); i++) {
+            largeRepository.getStrokes(i);
+        }
+        long largeHeap = usedHeap() - baseline;
+        long largeCached = largeRepository.getCachedBytes();
+        try {
+            // Decoded data is capped by the budget no matter how many glyphs were read
+            assertTrue(largeCached <= largeRepository.getCacheBudgetBytes());
+            assertTrue(largeCached < smallCached * 2);
+
+            // 100x the glyphs may only cost the extra index entries plus at most one cache budget
+            long allowed = largeRepository.getCacheBudgetBytes() + (largeCount - smallCount) * (long) INDEX_BYTES_PER_GLYPH;
+            assertTrue("heap grew by " + (largeHeap - smallHeap) + " bytes, allowed " + allowed,
+                    largeHeap - smallHeap < allowed);
+            assertTrue("allowance should be far below the stroke data", allowed < large.length() / 8);
+        } finally {
+            largeRepository.close();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.malayalamtracingapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Feeds synthetic traces along a straight template stroke through {@link StrokeAnalyzer}
+ * and checks the pause, reversal, deviation and jerk measurements.
+ */
+public class StrokeAnalyzerTest {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 8; // 120 Hz touch panel
+    private static final float TEMPLATE_LENGTH = 300f;
+
+    /**
+     * Horizontal template from (0, 0) to (length, 0), in 3-unit segments like a flattened path.
+     */
+    private static StrokeArcTable straightTemplate(float length) {
+        int count = (int) (length / 3);
+        float[] points = new float[(count + 1) * 2];
+        for (int i = 0; i <= count; i++) {
+            points[i * 2] = length * i / count;
+        }
+        return StrokeArcTable.fromPolyline(points);
+    }
+
+    /**
+     * Traces a run of constant-speed moves along y = offset through the given x waypoints.
+     */
+    private static final class Tracer {
+        final StrokeAnalyzer analyzer = new StrokeAnalyzer();
+        final float offset;
+        final float speed;
+        float x;
+        long time;
+
+        Tracer(StrokeArcTable template, float unitScale, float offset, float speed) {
+            this.offset = offset;
+            this.speed = speed;
+            analyzer.begin(template, unitScale, 0, offset, 0);
+        }
+
+        Tracer moveTo(float targetX) {
+            float step = speed * SAMPLE_INTERVAL_MILLIS / 1000f;
+            float direction = Math.signum(targetX - x);
+            while (Math.abs(targetX - x) > 1e-3f) {
+                x = Math.abs(targetX - x) <= step ? targetX : x + direction * step;
+                time += SAMPLE_INTERVAL_MILLIS;
+                analyzer.addSample(x, offset, time);
+            }
+            return this;
+        }
+
+        Tracer hold(long millis) {
+            for (long held = 0; held < millis; held += SAMPLE_INTERVAL_MILLIS) {
+                time += SAMPLE_INTERVAL_MILLIS;
+                analyzer.addSample(x, offset, time);
+            }
+            return this;
+        }
+
+        StrokeAttempt finish() {
+            return analyzer.finish("അ", -1, 0, true);
+        }
+    }
+
+    @Test
+    public void steadyTraceHasNoPausesOrReversals() {
+        StrokeAttempt attempt = new Tracer(straightTemplate(TEMPLATE_LENGTH), 1f, 0, 300).moveTo(TEMPLATE_LENGTH).finish();
+
+        assertEquals(TEMPLATE_LENGTH, attempt.lengthPx, 0.5f);
+        assertEquals(1000, attempt.durationMillis, SAMPLE_INTERVAL_MILLIS);
+        assertEquals(300, attempt.meanSpeed, 5);
+        assertEquals(0, attempt.pauseCount);
+        assertEquals(0, attempt.directionErrors);
+        assertEquals(0, attempt.reversedFraction, 0f);
+        assertEquals(0, attempt.maxDeviationPx, 1e-3f);
+    }
+
+    @Test
+    public void holdingStillCountsAsOnePause() {
+        StrokeAttempt attempt = new Tracer(straightTemplate(TEMPLATE_LENGTH), 1f, 0, 300)
+                .moveTo(150).hold(400).moveTo(TEMPLATE_LENGTH).finish();
+
+        assertEquals(1, attempt.pauseCount);
+        assertEquals(400, attempt.pauseMillis, 2 * SAMPLE_INTERVAL_MILLIS);
+
+        // A hold shorter than the minimum pause is not a hesitation
+        StrokeAttempt brief = new Tracer(straightTemplate(TEMPLATE_LENGTH), 1f, 0, 300)
+                .moveTo(150).hold(80).moveTo(TEMPLATE_LENGTH).finish();
+        assertEquals(0, brief.pauseCount);
+    }
+
+    @Test
+    public void goingBackwardsCountsOnceAndJitterDoesNot() {
+        StrokeAttempt attempt = new Tracer(straightTemplate(TEMPLATE_LENGTH), 1f, 0, 300)
+                .moveTo(200).moveTo(150).moveTo(TEMPLATE_LENGTH).finish();
+        assertEquals(1, attempt.directionErrors);
+        assertEquals(50f / attempt.lengthPx, attempt.reversedFraction, 0.01f);
+
+        StrokeAttempt jitter = new Tracer(straightTemplate(TEMPLATE_LENGTH), 1f, 0, 300)
+                .moveTo(200).moveTo(195).moveTo(TEMPLATE_LENGTH).finish();
+        assertEquals(0, jitter.directionErrors);
+    }
+
+    @Test
+    public void deviationIsDistanceFromTemplate() {
+        StrokeAttempt attempt = new Tracer(straightTemplate(TEMPLATE_LENGTH), 1f, 10, 300).moveTo(TEMPLATE_LENGTH).finish();
+
+        assertEquals(10, attempt.meanDeviationPx, 0.01f);
+        assertEquals(10, attempt.maxDeviationPx, 0.01f);
+    }
+
+    @Test
+    public void thresholdsAndResultsAreInViewPixels() {
+        // Template units are half a pixel: a 10-unit reversal is 20 px and counts
+        float unitScale = 2f;
+        StrokeAttempt attempt = new Tracer(straightTemplate(150), unitScale, 5, 150)
+                .moveTo(100).moveTo(90).moveTo(150).finish();
+        assertEquals(1, attempt.directionErrors);
+        assertEquals(10, attempt.meanDeviationPx, 0.01f);
+        assertEquals((150 + 2 * 10) * unitScale, attempt.lengthPx, 0.5f);
+        assertEquals(0, attempt.pauseCount);
+
+        // 5 units is 10 px, under the 12 px jitter allowance
+        StrokeAttempt jitter = new Tracer(straightTemplate(150), unitScale, 0, 150)
+                .moveTo(100).moveTo(95).moveTo(150).finish();
+        assertEquals(0, jitter.directionErrors);
+
+        // 10 units/s is 20 px/s, slow enough to be a pause
+        StrokeAttempt slow = new Tracer(straightTemplate(150), unitScale, 0, 10).moveTo(5).finish();
+        assertEquals(1, slow.pauseCount);
+    }
+
+    @Test
+    public void jerkIsHigherForStopAndGoAndDoesNotDependOnSize() {
+        StrokeAttempt smooth = new Tracer(straightTemplate(TEMPLATE_LENGTH), 1f, 0, 300).moveTo(TEMPLATE_LENGTH).finish();
+        Tracer stopAndGo = new Tracer(straightTemplate(TEMPLATE_LENGTH), 1f, 0, 600);
+        for (int i = 1; i <= 6; i++) {
+            stopAndGo.moveTo(i * 50).hold(80);
+        }
+        StrokeAttempt jerky = stopAndGo.finish();
+
+        assertTrue(smooth.dimensionlessJerk >= 0);
+        assertTrue("smooth " + smooth.dimensionlessJerk + " vs stop-and-go " + jerky.dimensionlessJerk,
+                jerky.dimensionlessJerk > smooth.dimensionlessJerk * 10);
+
+        // The same motion at twice the size and speed takes as long and is as smooth
+        StrokeAttempt larger = new Tracer(straightTemplate(2 * TEMPLATE_LENGTH), 1f, 0, 600).moveTo(2 * TEMPLATE_LENGTH).finish();
+        assertEquals(smooth.durationMillis, larger.durationMillis);
+        assertEquals(smooth.dimensionlessJerk, larger.dimensionlessJerk, smooth.dimensionlessJerk * 0.01f);
+    }
+
+    @Test
+    public void cancelledStrokeProducesNoAttempt() {
+        StrokeAnalyzer analyzer = new StrokeAnalyzer();
+        analyzer.begin(straightTemplate(TEMPLATE_LENGTH), 1f, 0, 0, 0);
+        analyzer.addSample(10, 0, 8);
+        analyzer.cancel();
+        assertFalse(analyzer.isActive());
+        assertNull(analyzer.finish("അ", -1, 0, false));
+    }
+}